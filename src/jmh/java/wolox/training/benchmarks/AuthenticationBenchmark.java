@@ -0,0 +1,92 @@
+package wolox.training.benchmarks;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import wolox.training.models.User;
+import wolox.training.repositories.UserRepository;
+import wolox.training.security.CustomAuthenticationProvider;
+
+/**
+ * Basic authentication in CustomAuthenticationProvider, verifying the password with BCrypt and answering from the
+ * verified credentials cache
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationBenchmark {
+
+    private static final String USERNAME = "juandc";
+    private static final String PASSWORD = "testing";
+
+    @Param({"10"})
+    private int bcryptStrength;
+
+    private CustomAuthenticationProvider uncachedProvider;
+    private CustomAuthenticationProvider cachedProvider;
+    private Authentication authentication;
+
+    @Setup
+    public void setup() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(bcryptStrength);
+        User user = new User();
+        ReflectionTestUtils.setField(user, "id", 1L);
+        user.setUsername(USERNAME);
+        user.setName("Juan David Celedon");
+        user.setPassword(encoder.encode(PASSWORD));
+        user.setBirthdate(LocalDate.of(1983, 2, 15));
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findOneByUsername(USERNAME)).thenReturn(Optional.of(user));
+
+        uncachedProvider = provider(userRepository, encoder, 0);
+        cachedProvider = provider(userRepository, encoder, 10_000);
+        authentication = new UsernamePasswordAuthenticationToken(USERNAME, PASSWORD);
+        cachedProvider.authenticate(authentication);
+    }
+
+    @Benchmark
+    public Authentication bcrypt() {
+        return uncachedProvider.authenticate(authentication);
+    }
+
+    @Benchmark
+    public Authentication cached() {
+        return cachedProvider.authenticate(authentication);
+    }
+
+    private static CustomAuthenticationProvider provider(UserRepository userRepository,
+        BCryptPasswordEncoder encoder, long cacheMaxSize) {
+
+        CustomAuthenticationProvider provider = new CustomAuthenticationProvider(cacheMaxSize, 3600,
+            new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(provider, "userRepository", userRepository);
+        ReflectionTestUtils.setField(provider, "encoder", encoder);
+        return provider;
+    }
+}
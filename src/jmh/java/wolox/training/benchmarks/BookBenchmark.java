@@ -0,0 +1,79 @@
+package wolox.training.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import wolox.training.models.Book;
+import wolox.training.models.BookDTO;
+
+/**
+ * Creation of a book through its validating setters, from the form and from an OpenLibrary BookDTO, and the cost of
+ * a rejected value
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookBenchmark {
+
+    private BookDTO bookDTO;
+
+    @Setup
+    public void setup() {
+        bookDTO = new BookDTO();
+        bookDTO.setIsbn("0385472579");
+        bookDTO.setTitle("Zen speaks");
+        bookDTO.setSubtitle("shouts of nothingness");
+        bookDTO.setPublisher("Anchor Books");
+        bookDTO.setPublishDate("1994");
+        bookDTO.setPageNumber("159");
+        bookDTO.setAuthor("Zhizhong Cai");
+    }
+
+    @Benchmark
+    public Book setters() {
+        Book book = new Book();
+        book.setAuthor("Yuval Noah Harari");
+        book.setTitle("Homo Deus");
+        book.setSubtitle("A Brief History of tomorrow");
+        book.setImage("deus.jpg");
+        book.setIsbn("9780099590088");
+        book.setPages("496");
+        book.setYear("2016");
+        book.setPublisher("DEBATE");
+        book.setGenre("Natural History");
+        return book;
+    }
+
+    /**
+     * A rejected ISBN, which builds the exception and its stack trace
+     */
+    @Benchmark
+    public Object invalidIsbn() {
+        try {
+            new Book().setIsbn("978-0099590088");
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Book toBook() {
+        return bookDTO.toBook();
+    }
+}
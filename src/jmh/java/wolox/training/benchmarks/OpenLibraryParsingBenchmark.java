@@ -0,0 +1,90 @@
+package wolox.training.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import wolox.training.models.BookDTO;
+import wolox.training.services.OpenLibraryResponseParser;
+
+/**
+ * Parsing of the zen_speaks.json OpenLibrary response with the streaming parser against the previous tree parsing.
+ * Run with the gc profiler to compare the allocated bytes per lookup
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpenLibraryParsingBenchmark {
+
+    private static final String ISBN = "0385472579";
+
+    private byte[] response;
+    private ObjectMapper sharedMapper;
+    private OpenLibraryResponseParser parser;
+
+    @Setup
+    public void setup() throws IOException {
+        try (InputStream body = getClass().getResourceAsStream("/__files/zen_speaks.json")) {
+            response = ByteStreams.toByteArray(body);
+        }
+        sharedMapper = new ObjectMapper();
+        parser = new OpenLibraryResponseParser(sharedMapper.getFactory());
+    }
+
+    @Benchmark
+    public BookDTO streaming() throws IOException {
+        return parser.parse(new ByteArrayInputStream(response)).get(ISBN);
+    }
+
+    /**
+     * The whole response read as a tree, then every field converted by a new mapper
+     */
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public BookDTO tree() throws IOException {
+        ObjectNode responseTree = sharedMapper.readValue(new ByteArrayInputStream(response), ObjectNode.class);
+        JsonNode bookNode = responseTree.get(OpenLibraryResponseParser.ISBN_PREFIX + ISBN);
+        ObjectMapper mapper = new ObjectMapper();
+
+        List<Map<String, String>> publishers = mapper.convertValue(
+            bookNode.get(OpenLibraryResponseParser.PUBLISHERS_ATTRIBUTE), List.class);
+        List<Map<String, String>> authors = mapper.convertValue(
+            bookNode.get(OpenLibraryResponseParser.AUTHORS_ATTRIBUTE), List.class);
+
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setIsbn(ISBN);
+        bookDTO.setTitle(mapper.convertValue(bookNode.get(OpenLibraryResponseParser.TITLE_ATTRIBUTE), String.class));
+        bookDTO.setSubtitle(
+            mapper.convertValue(bookNode.get(OpenLibraryResponseParser.SUBTITLE_ATTRIBUTE), String.class));
+        bookDTO.setPublishDate(
+            mapper.convertValue(bookNode.get(OpenLibraryResponseParser.PUBLISHED_DATE_ATTRIBUTE), String.class));
+        bookDTO.setPageNumber(
+            mapper.convertValue(bookNode.get(OpenLibraryResponseParser.PAGES_NUMBER_ATTRIBUTE), String.class));
+        bookDTO.setPublisher(publishers.get(0).get(OpenLibraryResponseParser.NAME_ATTRIBUTE));
+        bookDTO.setAuthor(authors.get(0).get(OpenLibraryResponseParser.NAME_ATTRIBUTE));
+        return bookDTO;
+    }
+}
@@ -0,0 +1,81 @@
+package wolox.training.benchmarks;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import wolox.training.exceptions.BookAlreadyOwnedException;
+import wolox.training.models.Book;
+import wolox.training.models.User;
+
+/**
+ * Adding and removing a book of a user at different sizes of its book collection
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserBooksBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int ownedBooks;
+
+    private User user;
+    private Book ownedBook;
+    private Book newBook;
+
+    @Setup
+    public void setup() {
+        user = new User();
+        user.setUsername("juandc");
+        user.setName("Juan David Celedon");
+        user.setBirthdate(LocalDate.of(1983, 2, 15));
+        for (long id = 1; id <= ownedBooks; id++) {
+            user.addBook(persistedBook(id));
+        }
+        ownedBook = persistedBook(1L);
+        newBook = persistedBook(ownedBooks + 1L);
+    }
+
+    /**
+     * Add a book the user does not have and remove it, so the collection size stays the same
+     */
+    @Benchmark
+    public User addAndRemoveBook() {
+        user.addBook(newBook);
+        user.removeBook(newBook);
+        return user;
+    }
+
+    @Benchmark
+    public Object addOwnedBook() {
+        try {
+            user.addBook(ownedBook);
+            return null;
+        } catch (BookAlreadyOwnedException e) {
+            return e;
+        }
+    }
+
+    private static Book persistedBook(long id) {
+        Book book = new Book();
+        ReflectionTestUtils.setField(book, "id", id);
+        return book;
+    }
+}
@@ -0,0 +1,73 @@
+package wolox.training.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import wolox.training.models.Book;
+import wolox.training.models.User;
+
+/**
+ * Serialization of a user with its books to a JSON response body, with a mapper configured like the Spring MVC one
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserSerializationBenchmark {
+
+    @Param({"0", "10", "100"})
+    private int books;
+
+    private ObjectMapper objectMapper;
+    private User user;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        user = new User();
+        ReflectionTestUtils.setField(user, "id", 1L);
+        user.setUsername("juandc");
+        user.setName("Juan David Celedon");
+        user.setPassword("$2a$10$4bZUwzJp6cS4nVw0hNpYa.0tFnMkcmdR3h3zGq0n3Z8zB0f0mRmWe");
+        user.setBirthdate(LocalDate.of(1983, 2, 15));
+        for (long id = 1; id <= books; id++) {
+            Book book = new Book();
+            ReflectionTestUtils.setField(book, "id", id);
+            book.setAuthor("Yuval Noah Harari");
+            book.setTitle("Homo Deus");
+            book.setSubtitle("A Brief History of tomorrow");
+            book.setImage("deus.jpg");
+            book.setIsbn(String.valueOf(9780099590000L + id));
+            book.setPages("496");
+            book.setYear("2016");
+            book.setPublisher("DEBATE");
+            book.setGenre("Natural History");
+            user.addBook(book);
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(user);
+    }
+}
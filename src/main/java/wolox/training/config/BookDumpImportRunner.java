@@ -0,0 +1,80 @@
+package wolox.training.config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import wolox.training.models.DumpImportProgress;
+import wolox.training.services.BookDumpImportService;
+
+/**
+ * Import the OpenLibrary dumps given with the {@code --import-dump=<path>} option before the application is ready.
+ * The progress is saved in a {@code <path>.offset} file next to the dump, and an interrupted import is resumed from
+ * it the next time the same dump is given. Remove the file to import the dump again from the beginning
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class BookDumpImportRunner implements ApplicationRunner {
+
+    public static final String IMPORT_DUMP_OPTION = "import-dump";
+    public static final String OFFSET_FILE_EXTENSION = ".offset";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BookDumpImportRunner.class);
+
+    private final BookDumpImportService bookDumpImportService;
+
+    public BookDumpImportRunner(BookDumpImportService bookDumpImportService) {
+        this.bookDumpImportService = bookDumpImportService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!args.containsOption(IMPORT_DUMP_OPTION)) {
+            return;
+        }
+        for (String dump : args.getOptionValues(IMPORT_DUMP_OPTION)) {
+            importDump(Paths.get(dump));
+        }
+    }
+
+    private void importDump(Path dump) throws IOException {
+        Path offsetFile = dump.resolveSibling(dump.getFileName() + OFFSET_FILE_EXTENSION);
+        long startOffset = Files.exists(offsetFile) ?
+            Long.parseLong(new String(Files.readAllBytes(offsetFile), StandardCharsets.UTF_8).trim()) : 0;
+
+        LOGGER.info("Importing books from {} starting at byte {}", dump, startOffset);
+        DumpImportProgress progress = bookDumpImportService.importDump(dump, startOffset, currentProgress -> {
+            LOGGER.info("Dump import progress: {} records read, {} imported, {} invalid, {} records/s, at byte {}",
+                currentProgress.getReadRecords(), currentProgress.getImportedRecords(),
+                currentProgress.getInvalidRecords(), currentProgress.getRecordsPerSecond(),
+                currentProgress.getOffset());
+            saveOffset(offsetFile, currentProgress.getOffset());
+        });
+        LOGGER.info("Imported {} books from {} in {} ms, {} records were invalid", progress.getImportedRecords(), dump,
+            progress.getElapsedMillis(), progress.getInvalidRecords());
+    }
+
+    /**
+     * Replace the offset file atomically, so an interruption never leaves it half written
+     */
+    private static void saveOffset(Path offsetFile, long offset) {
+        Path temporaryFile = offsetFile.resolveSibling(offsetFile.getFileName() + ".tmp");
+        try {
+            Files.write(temporaryFile, Long.toString(offset).getBytes(StandardCharsets.UTF_8));
+            Files.move(temporaryFile, offsetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package wolox.training.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import wolox.training.services.BookSuggestionService;
+
+/**
+ * Configuration of the application metrics. The web requests and the connection pool are timed and measured by the
+ * Spring Boot auto-configuration, their histograms are enabled in the application properties
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Static, so the post processor is created before the other beans of this configuration
+     */
+    @Bean
+    public static RepositoryMetricsPostProcessor repositoryMetricsPostProcessor(
+        ObjectProvider<MeterRegistry> meterRegistry) {
+        return new RepositoryMetricsPostProcessor(meterRegistry);
+    }
+
+    /**
+     * Publish the size and the rebuild time of the suggestion tries
+     */
+    @Bean
+    public MeterBinder bookSuggestionMetrics(BookSuggestionService bookSuggestionService) {
+        return registry -> {
+            TimeGauge.builder("books.suggestions.rebuild.duration", bookSuggestionService, TimeUnit.MILLISECONDS,
+                BookSuggestionService::getLastRebuildMillis)
+                .description("Duration of the last rebuild of the suggestions")
+                .register(registry);
+            Gauge.builder("books.suggestions.nodes", bookSuggestionService, BookSuggestionService::getNodeCount)
+                .description("Number of nodes used from the suggestions memory budget")
+                .register(registry);
+            FunctionCounter.builder("books.suggestions.dropped", bookSuggestionService,
+                BookSuggestionService::getDroppedSuggestions)
+                .description("Number of titles and authors not suggested because the memory budget was spent")
+                .register(registry);
+        };
+    }
+}
@@ -0,0 +1,100 @@
+package wolox.training.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import wolox.training.services.OpenLibraryService;
+import wolox.training.utils.CircuitBreaker;
+import wolox.training.utils.CircuitBreaker.State;
+
+/**
+ * Configuration of the resilience components of the OpenLibrary client and their metrics
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Configuration
+public class OpenLibraryConfig {
+
+    @Bean
+    public CircuitBreaker openLibraryCircuitBreaker(
+        @Value("${openLibrary.circuitBreaker.windowSize}") int windowSize,
+        @Value("${openLibrary.circuitBreaker.minimumCalls}") int minimumCalls,
+        @Value("${openLibrary.circuitBreaker.failureRateThreshold}") float failureRateThreshold,
+        @Value("${openLibrary.circuitBreaker.slowCallRateThreshold}") float slowCallRateThreshold,
+        @Value("${openLibrary.circuitBreaker.slowCallDurationMillis}") long slowCallDurationMillis,
+        @Value("${openLibrary.circuitBreaker.openDurationSeconds}") long openDurationSeconds,
+        @Value("${openLibrary.circuitBreaker.halfOpenCalls}") int halfOpenCalls) {
+
+        return CircuitBreaker.builder()
+            .name("openLibrary")
+            .windowSize(windowSize)
+            .minimumCalls(minimumCalls)
+            .failureRateThreshold(failureRateThreshold)
+            .slowCallRateThreshold(slowCallRateThreshold)
+            .slowCallDurationMillis(slowCallDurationMillis)
+            .openDurationMillis(TimeUnit.SECONDS.toMillis(openDurationSeconds))
+            .halfOpenCalls(halfOpenCalls)
+            .build();
+    }
+
+    /**
+     * Publish the circuit breaker state and transitions, the bulkhead usage, the cache hits and misses and the stale
+     * responses. The request durations are timed by the service
+     */
+    @Bean
+    public MeterBinder openLibraryMetrics(OpenLibraryService openLibraryService) {
+        return registry -> {
+            CircuitBreaker circuitBreaker = openLibraryService.getCircuitBreaker();
+            for (State state : State.values()) {
+                String stateTag = state.name().toLowerCase(Locale.ROOT);
+                Gauge.builder("openlibrary.circuitbreaker.state", circuitBreaker,
+                    breaker -> breaker.getState() == state ? 1 : 0)
+                    .description("1 if the circuit breaker is in the state, 0 otherwise")
+                    .tag("state", stateTag)
+                    .register(registry);
+                FunctionCounter.builder("openlibrary.circuitbreaker.transitions", circuitBreaker,
+                    breaker -> breaker.getTransitionCount(state))
+                    .description("Number of times the circuit breaker changed to the state")
+                    .tag("state", stateTag)
+                    .register(registry);
+            }
+
+            FunctionCounter.builder("openlibrary.circuitbreaker.rejected.calls", openLibraryService,
+                OpenLibraryService::getCircuitOpenRejectedCalls)
+                .description("Number of calls rejected because the circuit breaker was open")
+                .register(registry);
+
+            Gauge.builder("openlibrary.bulkhead.available.calls", openLibraryService,
+                OpenLibraryService::getBulkheadAvailableCalls)
+                .description("Number of calls that can still be made concurrently to OpenLibrary")
+                .register(registry);
+            FunctionCounter.builder("openlibrary.bulkhead.rejected.calls", openLibraryService,
+                OpenLibraryService::getBulkheadRejectedCalls)
+                .description("Number of calls rejected because the concurrent calls limit was reached")
+                .register(registry);
+            FunctionCounter.builder("openlibrary.cache.gets", openLibraryService, OpenLibraryService::getCacheHits)
+                .description("Number of ISBN lookups answered by a fresh cached info (hit) or not (miss)")
+                .tag("result", "hit")
+                .register(registry);
+            FunctionCounter.builder("openlibrary.cache.gets", openLibraryService, OpenLibraryService::getCacheMisses)
+                .description("Number of ISBN lookups answered by a fresh cached info (hit) or not (miss)")
+                .tag("result", "miss")
+                .register(registry);
+            FunctionCounter.builder("openlibrary.cache.evictions", openLibraryService,
+                OpenLibraryService::getCacheEvictions)
+                .description("Number of ISBN lookups evicted from the cache")
+                .register(registry);
+            FunctionCounter.builder("openlibrary.cache.stale.responses", openLibraryService,
+                OpenLibraryService::getStaleResponses)
+                .description("Number of stale book infos returned while OpenLibrary was unavailable")
+                .register(registry);
+        };
+    }
+}
@@ -0,0 +1,114 @@
+package wolox.training.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+
+/**
+ * Time every method of the Spring Data repositories. The timer is added as the outermost advice of the repository
+ * proxy, so it includes the transaction and the exception translation. Methods returning a stream are only timed
+ * until the stream is opened
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    static final String METRIC_NAME = "spring.data.repository.invocations";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    /**
+     * @param meterRegistry resolved on the first invocation, so the registry is not created before the post
+     *                      processors
+     */
+    public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof Repository && bean instanceof Advised && !((Advised) bean).isFrozen()) {
+            ((Advised) bean).addAdvice(0, new TimingInterceptor(beanName));
+        }
+        return bean;
+    }
+
+    private final class TimingInterceptor implements MethodInterceptor {
+
+        private final String repository;
+        private final ConcurrentMap<Method, MethodTimers> timers = new ConcurrentHashMap<>();
+        private volatile MeterRegistry registry;
+
+        private TimingInterceptor(String repository) {
+            this.repository = repository;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            if (invocation.getMethod().getDeclaringClass() == Object.class) {
+                return invocation.proceed();
+            }
+            long startTime = System.nanoTime();
+            boolean failed = true;
+            try {
+                Object result = invocation.proceed();
+                failed = false;
+                return result;
+            } finally {
+                MethodTimers methodTimers = timers(invocation.getMethod());
+                if (methodTimers != null) {
+                    (failed ? methodTimers.error : methodTimers.success)
+                        .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+
+        /**
+         * @return the timers of a method, or null if there is no registry
+         */
+        private MethodTimers timers(Method method) {
+            MethodTimers methodTimers = timers.get(method);
+            if (methodTimers != null) {
+                return methodTimers;
+            }
+            if (registry == null) {
+                registry = meterRegistry.getIfAvailable();
+                if (registry == null) {
+                    return null;
+                }
+            }
+            return timers.computeIfAbsent(method, key -> new MethodTimers(registry, repository, key.getName()));
+        }
+    }
+
+    private static final class MethodTimers {
+
+        private final Timer success;
+        private final Timer error;
+
+        private MethodTimers(MeterRegistry registry, String repository, String method) {
+            this.success = timer(registry, repository, method, "SUCCESS");
+            this.error = timer(registry, repository, method, "ERROR");
+        }
+
+        private static Timer timer(MeterRegistry registry, String repository, String method, String state) {
+            return Timer.builder(METRIC_NAME)
+                .description("Duration of the repository method invocations")
+                .tag("repository", repository)
+                .tag("method", method)
+                .tag("state", state)
+                .register(registry);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package wolox.training.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Create the PostgreSQL search indexes that can not be declared with JPA annotations. Other databases are skipped
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class SearchIndexesInitializer implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SearchIndexesInitializer.class);
+    private static final String POSTGRESQL = "PostgreSQL";
+    private static final String[] STATEMENTS = {
+        "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+        "CREATE INDEX IF NOT EXISTS t_user_name_trgm_idx ON t_user USING gin (lower(name) gin_trgm_ops)"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SearchIndexesInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+            connection.getMetaData().getDatabaseProductName());
+
+        if (POSTGRESQL.equals(database)) {
+            try {
+                for (String statement : STATEMENTS) {
+                    jdbcTemplate.execute(statement);
+                }
+            } catch (DataAccessException e) {
+                LOGGER.warn("Search indexes could not be created, searches will scan the tables", e);
+            }
+        }
+    }
+}
@@ -4,10 +4,19 @@ import static wolox.training.utils.ErrorConstants.BOOK_BY_AUTHOR_NOT_FOUND;
 import static wolox.training.utils.ErrorConstants.BOOK_ID_MISMATCH;
 import static wolox.training.utils.ErrorConstants.BOOK_ID_NOT_FOUND;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +26,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -24,9 +34,19 @@ import org.springframework.web.bind.annotation.RestController;
 import wolox.training.exceptions.BookIdMismatchException;
 import wolox.training.exceptions.BookNotFoundException;
 import wolox.training.models.Book;
-import wolox.training.models.BookDTO;
+import wolox.training.models.BookExportFormat;
+import wolox.training.models.BookImportResult;
+import wolox.training.models.BookImportResult.Status;
+import wolox.training.models.BookSuggestion;
+import wolox.training.models.CursorPage;
 import wolox.training.repositories.BookRepository;
-import wolox.training.services.OpenLibraryService;
+import wolox.training.repositories.specifications.BookSpecifications;
+import wolox.training.services.BookBatchImportService;
+import wolox.training.services.BookExportService;
+import wolox.training.services.BookImportService;
+import wolox.training.services.BookSearchIndex;
+import wolox.training.services.BookStreamingService;
+import wolox.training.services.BookSuggestionService;
 
 /**
  * Web controller to handle the books resource request
@@ -40,17 +60,86 @@ import wolox.training.services.OpenLibraryService;
 public class BookController {
 
     private final BookRepository bookRepository;
-    private final OpenLibraryService openLibraryService;
+    private final BookImportService bookImportService;
+    private final BookBatchImportService bookBatchImportService;
+    private final BookStreamingService bookStreamingService;
+    private final BookExportService bookExportService;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookSuggestionService bookSuggestionService;
+
+    @Value("${books.page.defaultSize}")
+    private int defaultPageSize;
+    @Value("${books.page.maxSize}")
+    private int maxPageSize;
 
     @Autowired
-    public BookController(BookRepository bookRepository, OpenLibraryService openLibraryService) {
+    public BookController(BookRepository bookRepository, BookImportService bookImportService,
+        BookBatchImportService bookBatchImportService, BookStreamingService bookStreamingService,
+        BookExportService bookExportService, BookSearchIndex bookSearchIndex,
+        BookSuggestionService bookSuggestionService) {
         this.bookRepository = bookRepository;
-        this.openLibraryService = openLibraryService;
+        this.bookImportService = bookImportService;
+        this.bookBatchImportService = bookBatchImportService;
+        this.bookStreamingService = bookStreamingService;
+        this.bookExportService = bookExportService;
+        this.bookSearchIndex = bookSearchIndex;
+        this.bookSuggestionService = bookSuggestionService;
     }
 
+    /**
+     * Find a page of books ordered by id
+     *
+     * @param after the next cursor of the previous page, if null the first page is returned
+     * @param size  page size, capped to the configured max page size
+     * @return the page of books and the cursor of the next one
+     */
     @GetMapping
-    public List<Book> findAll() {
-        return bookRepository.findAll();
+    public CursorPage<Book> findAll(@RequestParam(required = false) Long after,
+        @RequestParam(required = false) Integer size) {
+
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        List<Book> books = bookRepository.findAllByIdGreaterThanOrderByIdAsc(after == null ? 0L : after,
+            PageRequest.of(0, pageSize));
+        Long nextCursor = books.size() < pageSize ? null : books.get(books.size() - 1).getId();
+
+        return new CursorPage<>(books, nextCursor);
+    }
+
+    /**
+     * Find all the books as a JSON array. Like the export, it is written on the request thread instead of
+     * asynchronously, so a large catalog is not cut by the async request timeout
+     *
+     * @param response the books are written to its output stream as they are read
+     * @throws IOException if the response can not be written
+     */
+    @GetMapping("/stream")
+    public void streamAll(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        bookStreamingService.writeAll(response.getOutputStream());
+    }
+
+    /**
+     * Export all the books ordered by id, without their users. It is written on the request thread instead of
+     * asynchronously, so a long export is not cut by the async request timeout
+     *
+     * @param format         CSV or NDJSON
+     * @param acceptEncoding the output is gzip compressed when it accepts gzip
+     * @param response       the books are written to its output stream as they are read
+     * @throws IOException if the response can not be written
+     */
+    @GetMapping(value = "/export", produces = {"text/csv", "application/x-ndjson"})
+    public void export(@RequestParam(defaultValue = "CSV") BookExportFormat format,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        HttpServletResponse response) throws IOException {
+
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        response.setContentType(format.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=books." + format.getExtension());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        bookExportService.writeAll(format, gzip, response.getOutputStream());
     }
 
     @GetMapping("/{id}")
@@ -66,23 +155,90 @@ public class BookController {
             new BookNotFoundException(String.format(BOOK_BY_AUTHOR_NOT_FOUND, author)));
     }
 
+    /**
+     * Find the books matching all the given filters
+     *
+     * @param publisher can be null
+     * @param genre     can be null
+     * @param year      can be null
+     * @param pageable  page number, size and sort
+     * @return the page of matching books
+     */
+    @GetMapping(value = "/search", params = "!q")
+    public Page<Book> search(@RequestParam(required = false) String publisher,
+        @RequestParam(required = false) String genre, @RequestParam(required = false) String year,
+        Pageable pageable) {
+
+        return bookRepository.findAll(BookSpecifications.search(publisher, genre, year), pageable);
+    }
+
+    /**
+     * Find the books whose title, subtitle or author contain all the words of a query, the best ranked first
+     *
+     * @param q        free text, incomplete words match as prefixes
+     * @param pageable page number and size
+     * @return the page of matching books
+     */
+    @GetMapping(value = "/search", params = "q")
+    public Page<Book> fullTextSearch(@RequestParam String q, Pageable pageable) {
+        return bookSearchIndex.search(q, pageable);
+    }
+
+    /**
+     * Suggest the titles and authors starting with a prefix
+     *
+     * @param prefix case and diacritics are ignored
+     * @param limit  number of suggestions, capped to the configured max size
+     * @return the suggestions, the ones with more books first
+     */
+    @GetMapping("/suggestions")
+    public List<BookSuggestion> suggest(@RequestParam String prefix,
+        @RequestParam(defaultValue = "${books.suggestions.maxSize}") int limit) {
+        return bookSuggestionService.suggest(prefix, limit);
+    }
+
+    /**
+     * Find a book by its ISBN, importing it from OpenLibrary when it is not persisted. The request is served
+     * asynchronously, so the servlet thread is released while OpenLibrary answers
+     *
+     * @param isbn must not be null
+     * @return the persisted book with status 200, or the imported book with status 201
+     */
     @GetMapping(params = "isbn")
-    public ResponseEntity<Book> findByIsbn(@RequestParam String isbn) {
+    public CompletableFuture<ResponseEntity<Book>> findByIsbn(@RequestParam String isbn) {
         Optional<Book> optionalBook = bookRepository.findByIsbn(isbn);
         if (optionalBook.isPresent()) {
-            return new ResponseEntity<>(optionalBook.get(), HttpStatus.OK);
+            return CompletableFuture.completedFuture(new ResponseEntity<>(optionalBook.get(), HttpStatus.OK));
         } else {
-            BookDTO bookDTO = openLibraryService.bookInfo(isbn);
-            Book book = bookRepository.save(bookDTO.toBook());
-
-            return new ResponseEntity<>(book, HttpStatus.CREATED);
+            return bookImportService.importByIsbnAsync(isbn).thenApply(book -> {
+                bookSearchIndex.index(book);
+                bookSuggestionService.index(book);
+                return new ResponseEntity<>(book, HttpStatus.CREATED);
+            });
         }
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public void create(@RequestBody @Valid Book book) {
-        bookRepository.save(book);
+        Book createdBook = bookRepository.save(book);
+        bookSearchIndex.index(createdBook);
+        bookSuggestionService.index(createdBook);
+    }
+
+    @PostMapping("/import")
+    public List<BookImportResult> importAll(@RequestBody List<String> isbns) {
+        List<BookImportResult> results = bookBatchImportService.importByIsbns(isbns);
+        List<String> importedIsbns = results.stream()
+            .filter(result -> result.getStatus() == Status.IMPORTED)
+            .map(BookImportResult::getIsbn)
+            .collect(Collectors.toList());
+        if (!importedIsbns.isEmpty()) {
+            List<Book> importedBooks = bookRepository.findAllByIsbnIn(importedIsbns);
+            bookSearchIndex.indexAll(importedBooks);
+            bookSuggestionService.indexAll(importedBooks);
+        }
+        return results;
     }
 
     @DeleteMapping("/{id}")
@@ -92,6 +248,8 @@ public class BookController {
             bookRepository.findById(id)
                 .orElseThrow(() -> new BookNotFoundException(String.format(BOOK_ID_NOT_FOUND, id)));
         bookRepository.delete(b);
+        bookSearchIndex.delete(id);
+        bookSuggestionService.delete(id);
     }
 
     @PutMapping("/{id}")
@@ -101,7 +259,10 @@ public class BookController {
         } else {
             bookRepository.findById(id)
                 .orElseThrow(() -> new BookNotFoundException(String.format(BOOK_ID_NOT_FOUND, id)));
-            return bookRepository.save(book);
+            Book updatedBook = bookRepository.save(book);
+            bookSearchIndex.index(updatedBook);
+            bookSuggestionService.index(updatedBook);
+            return updatedBook;
         }
     }
 }
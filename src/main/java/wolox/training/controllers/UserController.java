@@ -1,5 +1,6 @@
 package wolox.training.controllers;
 
+import static wolox.training.utils.ErrorConstants.BOOK_ALREADY_OWNED;
 import static wolox.training.utils.ErrorConstants.BOOK_ID_NOT_FOUND;
 import static wolox.training.utils.ErrorConstants.USER_BY_USERNAME_NOT_FOUND;
 import static wolox.training.utils.ErrorConstants.USER_ID_MISMATCH;
@@ -7,10 +8,13 @@ import static wolox.training.utils.ErrorConstants.USER_NOT_FOUND;
 import static wolox.training.utils.SwaggerConstants.RESPONSE_CODE_400;
 import static wolox.training.utils.SwaggerConstants.RESPONSE_CODE_401;
 import static wolox.training.utils.SwaggerConstants.RESPONSE_CODE_404;
+import static wolox.training.utils.SwaggerConstants.RESPONSE_CODE_409;
 import static wolox.training.utils.SwaggerConstants.RESPONSE_CODE_500;
 import static wolox.training.utils.SwaggerConstants.USER_CONTROLLER_ADD_BOOK;
 import static wolox.training.utils.SwaggerConstants.USER_CONTROLLER_ADD_BOOK_204;
 import static wolox.training.utils.SwaggerConstants.USER_CONTROLLER_AUTHENTICATED_USER;
+import static wolox.training.utils.SwaggerConstants.USER_CONTROLLER_BULK_BOOKS;
+import static wolox.training.utils.SwaggerConstants.USER_CONTROLLER_BULK_BOOKS_200;
 import static wolox.training.utils.SwaggerConstants.USER_CONTROLLER_CREATE;
 import static wolox.training.utils.SwaggerConstants.USER_CONTROLLER_CREATE_201;
 import static wolox.training.utils.SwaggerConstants.USER_CONTROLLER_DELETE;
@@ -19,9 +23,12 @@ import static wolox.training.utils.SwaggerConstants.USER_CONTROLLER_FIND_ALL_200
 import static wolox.training.utils.SwaggerConstants.USER_CONTROLLER_FIND_200;
 import static wolox.training.utils.SwaggerConstants.USER_CONTROLLER_FIND_BY_ID;
 import static wolox.training.utils.SwaggerConstants.USER_CONTROLLER_FIND_ONE_BY_USERNAME;
+import static wolox.training.utils.SwaggerConstants.USER_CONTROLLER_LOGIN;
+import static wolox.training.utils.SwaggerConstants.USER_CONTROLLER_LOGIN_200;
 import static wolox.training.utils.SwaggerConstants.USER_CONTROLLER_REMOVE_204;
 import static wolox.training.utils.SwaggerConstants.USER_CONTROLLER_REMOVE_BOOK;
 import static wolox.training.utils.SwaggerConstants.USER_CONTROLLER_REMOVE_BOOK_204;
+import static wolox.training.utils.SwaggerConstants.USER_CONTROLLER_SEARCH;
 import static wolox.training.utils.SwaggerConstants.USER_CONTROLLER_UPDATE;
 import static wolox.training.utils.SwaggerConstants.USER_CONTROLLER_UPDATE_200;
 import static wolox.training.utils.SwaggerConstants.USER_CONTROLLER_UPDATE_PASSWORD;
@@ -32,9 +39,14 @@ import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
+import java.time.LocalDate;
 import java.util.List;
 import javax.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -50,13 +62,25 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import wolox.training.exceptions.BookAlreadyOwnedException;
 import wolox.training.exceptions.BookNotFoundException;
 import wolox.training.exceptions.UserIdMismatchException;
 import wolox.training.exceptions.UserNotFoundException;
+import wolox.training.models.AccessToken;
 import wolox.training.models.Book;
+import wolox.training.models.BookOwnershipResult;
+import wolox.training.models.BulkBooksRequest;
 import wolox.training.models.User;
+import wolox.training.models.UserDetail;
+import wolox.training.models.UserSummary;
 import wolox.training.repositories.BookRepository;
+import wolox.training.repositories.UserBookRepository;
 import wolox.training.repositories.UserRepository;
+import wolox.training.repositories.specifications.UserSpecifications;
+import wolox.training.security.CustomAuthenticationProvider;
+import wolox.training.security.TokenService;
+import wolox.training.services.PasswordService;
+import wolox.training.services.UserBookService;
 
 /**
  * Web controller to handle the users resource request
@@ -70,27 +94,61 @@ import wolox.training.repositories.UserRepository;
 @Api(value = "Users", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
 public class UserController {
 
+    private static final String TOKEN_TYPE = "Bearer";
+
     private final UserRepository userRepository;
     private final BookRepository bookRepository;
+    private final UserBookRepository userBookRepository;
+    private final UserBookService userBookService;
+    private final CustomAuthenticationProvider authenticationProvider;
+    private final TokenService tokenService;
+    private final PasswordService passwordService;
 
     @Autowired
-    public UserController(UserRepository userRepository, BookRepository bookRepository) {
+    public UserController(UserRepository userRepository, BookRepository bookRepository,
+        UserBookRepository userBookRepository, UserBookService userBookService,
+        CustomAuthenticationProvider authenticationProvider, TokenService tokenService,
+        PasswordService passwordService) {
         this.userRepository = userRepository;
         this.bookRepository = bookRepository;
+        this.userBookRepository = userBookRepository;
+        this.userBookService = userBookService;
+        this.authenticationProvider = authenticationProvider;
+        this.tokenService = tokenService;
+        this.passwordService = passwordService;
     }
 
     @ApiOperation(value = USER_CONTROLLER_FIND_ALL)
     @ApiResponses(value = {
         @ApiResponse(code = 200, message = USER_CONTROLLER_FIND_ALL_200, responseContainer = "List",
-            response = User.class),
+            response = UserSummary.class),
         @ApiResponse(code = 401, message = RESPONSE_CODE_401)
     })
     @GetMapping
-    public List<User> findAll() {
-        return userRepository.findAll();
+    public List<UserSummary> findAll() {
+        return userRepository.findAllSummaries();
     }
 
-    @ApiOperation(value = USER_CONTROLLER_FIND_BY_ID, response = User.class)
+    @ApiOperation(value = USER_CONTROLLER_SEARCH)
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = USER_CONTROLLER_FIND_ALL_200),
+        @ApiResponse(code = 400, message = RESPONSE_CODE_400),
+        @ApiResponse(code = 401, message = RESPONSE_CODE_401)
+    })
+    @GetMapping("/search")
+    public Page<UserSummary> search(
+        @ApiParam(value = "Earliest birthdate") @RequestParam(required = false)
+        @DateTimeFormat(iso = ISO.DATE) LocalDate startDate,
+        @ApiParam(value = "Latest birthdate") @RequestParam(required = false)
+        @DateTimeFormat(iso = ISO.DATE) LocalDate endDate,
+        @ApiParam(value = "Text contained in the name") @RequestParam(required = false) String name,
+        Pageable pageable) {
+
+        return userRepository.findAll(UserSpecifications.search(startDate, endDate, name), pageable)
+            .map(UserSummary::from);
+    }
+
+    @ApiOperation(value = USER_CONTROLLER_FIND_BY_ID, response = UserDetail.class)
     @ApiResponses(value = {
         @ApiResponse(code = 200, message = USER_CONTROLLER_FIND_200),
         @ApiResponse(code = 400, message = RESPONSE_CODE_400),
@@ -98,21 +156,22 @@ public class UserController {
         @ApiResponse(code = 404, message = RESPONSE_CODE_404)
     })
     @GetMapping("/{id}")
-    public User findById(@ApiParam(value = "id", required = true) @PathVariable Long id) {
-        return userRepository.findById(id).orElseThrow(() -> new UserNotFoundException(String.format(USER_NOT_FOUND,
-            id)));
+    public UserDetail findById(@ApiParam(value = "id", required = true) @PathVariable Long id) {
+        return userRepository.findWithBooksById(id).map(UserDetail::from).orElseThrow(() ->
+            new UserNotFoundException(String.format(USER_NOT_FOUND, id)));
     }
 
     @ApiOperation(value = USER_CONTROLLER_FIND_ONE_BY_USERNAME)
     @ApiResponses(value = {
-        @ApiResponse(code = 200, message = USER_CONTROLLER_FIND_200, response = User.class),
+        @ApiResponse(code = 200, message = USER_CONTROLLER_FIND_200, response = UserDetail.class),
         @ApiResponse(code = 400, message = RESPONSE_CODE_400),
         @ApiResponse(code = 401, message = RESPONSE_CODE_401),
         @ApiResponse(code = 404, message = RESPONSE_CODE_404)
     })
     @GetMapping(params = "username")
-    public User findOneByUsername(@ApiParam(name = "username", required = true) @RequestParam String username) {
-        return userRepository.findOneByUsername(username).orElseThrow(()
+    public UserDetail findOneByUsername(
+        @ApiParam(name = "username", required = true) @RequestParam String username) {
+        return userRepository.findWithBooksByUsername(username).map(UserDetail::from).orElseThrow(()
             -> new UserNotFoundException(String.format(USER_BY_USERNAME_NOT_FOUND, username)));
     }
 
@@ -128,6 +187,21 @@ public class UserController {
         return new ResponseEntity<>(String.format(jsonResponse, authentication.getName()), HttpStatus.OK);
     }
 
+    @ApiOperation(value = USER_CONTROLLER_LOGIN)
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = USER_CONTROLLER_LOGIN_200, response = AccessToken.class),
+        @ApiResponse(code = 401, message = RESPONSE_CODE_401),
+        @ApiResponse(code = 404, message = RESPONSE_CODE_404)
+    })
+    @PostMapping("/login")
+    public AccessToken login(Authentication authentication) {
+        User user = userRepository.findOneByUsername(authentication.getName()).orElseThrow(()
+            -> new UserNotFoundException(String.format(USER_BY_USERNAME_NOT_FOUND, authentication.getName())));
+
+        return new AccessToken(tokenService.issueToken(user.getId(), user.getUsername()), TOKEN_TYPE,
+            tokenService.getTtlSeconds());
+    }
+
     @ApiOperation(value = USER_CONTROLLER_CREATE)
     @ApiResponses(value = {
         @ApiResponse(code = 201, message = USER_CONTROLLER_CREATE_201),
@@ -137,6 +211,7 @@ public class UserController {
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public void create(@RequestBody @Valid User user) {
+        passwordService.encodePassword(user);
         userRepository.save(user);
     }
 
@@ -153,24 +228,31 @@ public class UserController {
         User user = userRepository.findById(id).orElseThrow(() ->
             new UserNotFoundException(String.format(USER_NOT_FOUND, id)));
         userRepository.delete(user);
+        authenticationProvider.evictCredentials(id);
+        tokenService.revokeTokens(id);
     }
 
     @ApiOperation(value = USER_CONTROLLER_UPDATE)
     @ApiResponses(value = {
-        @ApiResponse(code = 200, message = USER_CONTROLLER_UPDATE_200, response = User.class),
+        @ApiResponse(code = 200, message = USER_CONTROLLER_UPDATE_200, response = UserDetail.class),
         @ApiResponse(code = 400, message = RESPONSE_CODE_400),
         @ApiResponse(code = 401, message = RESPONSE_CODE_401),
         @ApiResponse(code = 404, message = RESPONSE_CODE_404),
         @ApiResponse(code = 500, message = RESPONSE_CODE_500)
     })
     @PutMapping("/{id}")
-    public User update(
+    public UserDetail update(
         @ApiParam(value = "User's id", required = true) @PathVariable Long id, @RequestBody @Valid User user) {
 
         if (!user.getId().equals(id)) {
             throw new UserIdMismatchException(USER_ID_MISMATCH);
         } else if (userRepository.existsById(id)) {
-            return userRepository.save(user);
+            passwordService.encodePassword(user);
+            userRepository.save(user);
+            authenticationProvider.evictCredentials(id);
+            tokenService.revokeTokens(id);
+            return userRepository.findWithBooksById(id).map(UserDetail::from).orElseThrow(() ->
+                new UserNotFoundException(String.format(USER_NOT_FOUND, id)));
         } else {
             throw new UserNotFoundException(String.format(USER_NOT_FOUND, id));
         }
@@ -182,6 +264,7 @@ public class UserController {
         @ApiResponse(code = 400, message = RESPONSE_CODE_400),
         @ApiResponse(code = 401, message = RESPONSE_CODE_401),
         @ApiResponse(code = 404, message = RESPONSE_CODE_404),
+        @ApiResponse(code = 409, message = RESPONSE_CODE_409),
         @ApiResponse(code = 500, message = RESPONSE_CODE_500)
     })
     @PatchMapping("/{id}/books")
@@ -189,13 +272,12 @@ public class UserController {
     public void addBook(
         @ApiParam(value = "User's id", required = true) @PathVariable Long id, @RequestBody @Valid Book book) {
 
-        User user = userRepository.findById(id).orElseThrow(() -> new UserNotFoundException(USER_NOT_FOUND));
-
-        if (bookRepository.existsById(book.getId())) {
-            user.addBook(book);
-            userRepository.save(user);
-        } else {
+        if (!userRepository.findById(id).isPresent()) {
+            throw new UserNotFoundException(String.format(USER_NOT_FOUND, id));
+        } else if (!bookRepository.findById(book.getId()).isPresent()) {
             throw new BookNotFoundException(String.format(BOOK_ID_NOT_FOUND, book.getId()));
+        } else if (userBookRepository.addBook(id, book.getId()) == 0) {
+            throw new BookAlreadyOwnedException(BOOK_ALREADY_OWNED);
         }
     }
 
@@ -212,15 +294,30 @@ public class UserController {
     public void removeBook(
         @ApiParam(value = "User's id", required = true) @PathVariable Long id, @RequestBody @Valid Book book) {
 
-        User user = userRepository.findById(id).orElseThrow(() -> new UserNotFoundException(USER_NOT_FOUND));
-        if (bookRepository.existsById(book.getId())) {
-            user.removeBook(book);
-            userRepository.save(user);
-        } else {
+        if (!userRepository.findById(id).isPresent()) {
+            throw new UserNotFoundException(String.format(USER_NOT_FOUND, id));
+        } else if (userBookRepository.removeBook(id, book.getId()) == 0) {
             throw new BookNotFoundException(String.format(BOOK_ID_NOT_FOUND, book.getId()));
         }
     }
 
+    @ApiOperation(value = USER_CONTROLLER_BULK_BOOKS)
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = USER_CONTROLLER_BULK_BOOKS_200, responseContainer = "List",
+            response = BookOwnershipResult.class),
+        @ApiResponse(code = 400, message = RESPONSE_CODE_400),
+        @ApiResponse(code = 401, message = RESPONSE_CODE_401),
+        @ApiResponse(code = 404, message = RESPONSE_CODE_404),
+        @ApiResponse(code = 500, message = RESPONSE_CODE_500)
+    })
+    @PatchMapping("/{id}/books/bulk")
+    public List<BookOwnershipResult> updateBooks(
+        @ApiParam(value = "User's id", required = true) @PathVariable Long id,
+        @RequestBody @Valid BulkBooksRequest request) {
+
+        return userBookService.updateBooks(id, request);
+    }
+
     @ApiOperation(value = USER_CONTROLLER_UPDATE_PASSWORD)
     @ApiResponses(value = {
         @ApiResponse(code = 204, message = USER_CONTROLLER_UPDATE_PASSWORD_204),
@@ -237,7 +334,10 @@ public class UserController {
         if (!user.getId().equals(id)) {
             throw new UserIdMismatchException(USER_ID_MISMATCH);
         } else if (userRepository.existsById(id)) {
+            passwordService.encodePassword(user);
             userRepository.save(user);
+            authenticationProvider.evictCredentials(id);
+            tokenService.revokeTokens(id);
         } else {
             throw new UserNotFoundException(String.format(USER_NOT_FOUND, id));
         }
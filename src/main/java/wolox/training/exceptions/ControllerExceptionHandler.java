@@ -30,6 +30,17 @@ public class ControllerExceptionHandler extends ResponseEntityExceptionHandler {
         return handleExceptionInternal(ex, "Book not found", new HttpHeaders(), HttpStatus.NOT_FOUND, request);
     }
 
+    @ExceptionHandler(BookAlreadyOwnedException.class)
+    protected ResponseEntity<Object> handleConflict(Exception ex, WebRequest request) {
+        return handleExceptionInternal(ex, ex.getLocalizedMessage(), new HttpHeaders(), HttpStatus.CONFLICT, request);
+    }
+
+    @ExceptionHandler(OpenLibraryUnavailableException.class)
+    protected ResponseEntity<Object> handleServiceUnavailable(Exception ex, WebRequest request) {
+        return handleExceptionInternal(ex, ex.getLocalizedMessage(), new HttpHeaders(), HttpStatus.SERVICE_UNAVAILABLE,
+            request);
+    }
+
     @ExceptionHandler({
         BookIdMismatchException.class,
         UserIdMismatchException.class,
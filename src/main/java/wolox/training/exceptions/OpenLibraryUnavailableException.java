@@ -0,0 +1,19 @@
+package wolox.training.exceptions;
+
+/**
+ * Thrown when OpenLibrary can't be reached, answers with an error or there are too many pending requests to it
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+public class OpenLibraryUnavailableException extends RuntimeException {
+
+    public OpenLibraryUnavailableException(String message) {
+        super(message);
+    }
+
+    public OpenLibraryUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,28 @@
+package wolox.training.models;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * This class represent a bearer token issued to an authenticated user
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Getter
+@AllArgsConstructor
+@ApiModel(description = "Bearer token to authenticate the next requests")
+public class AccessToken {
+
+    @ApiModelProperty(notes = "Signed token to send in the Authorization header")
+    private final String token;
+
+    @ApiModelProperty(notes = "Token type")
+    private final String tokenType;
+
+    @ApiModelProperty(notes = "Seconds the token is valid")
+    private final long expiresIn;
+}
@@ -15,25 +15,31 @@ import static wolox.training.utils.ErrorConstants.OBLIGATORY_YEAR_FIELD;
 import static wolox.training.utils.ErrorConstants.PAGES_LESS_THAN_ZERO;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import com.google.common.base.Strings;
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToMany;
 import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
-import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * This class represent a book and its attributes
@@ -43,12 +49,24 @@ import org.apache.commons.lang3.StringUtils;
  * @since 1.0
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book")
+@Table(indexes = {
+    @Index(name = "book_publisher_idx", columnList = "publisher"),
+    @Index(name = "book_genre_idx", columnList = "genre"),
+    @Index(name = "book_year_idx", columnList = "year")
+})
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
 @NoArgsConstructor
-@EqualsAndHashCode
 @ToString
 public class Book {
 
+    /**
+     * Number of ids reserved by every value of the book sequence, with the pooled-lo optimizer a value v reserves the
+     * ids from v to v + ID_ALLOCATION_SIZE - 1
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Getter
     @Setter
     private String genre;
@@ -96,12 +114,13 @@ public class Book {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "BOOK_SEQ")
-    @SequenceGenerator(name = "BOOK_SEQ", sequenceName = "BOOK_SEQ")
+    @SequenceGenerator(name = "BOOK_SEQ", sequenceName = "BOOK_SEQ", allocationSize = ID_ALLOCATION_SIZE)
     @Getter
     private Long id;
 
     @ManyToMany(mappedBy = "books")
-    private final List<User> users = new ArrayList<>();
+    @ToString.Exclude
+    private final Set<User> users = new HashSet<>();
 
     public void setAuthor(String author) {
         checkArgument(!Strings.isNullOrEmpty(author), OBLIGATORY_AUTHOR_FIELD);
@@ -147,7 +166,34 @@ public class Book {
         this.isbn = isbn;
     }
 
-    public List<User> getUsers() {
-        return Collections.unmodifiableList(users);
+    /**
+     * The owners are not serialized, so writing a book never loads them
+     */
+    @JsonIgnore
+    public Set<User> getUsers() {
+        return Collections.unmodifiableSet(users);
+    }
+
+    /**
+     * Two books are equal if they have the same id. A book that is not persisted yet is only equal to itself
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        } else if (!(o instanceof Book)) {
+            return false;
+        } else {
+            return id != null && id.equals(((Book) o).getId());
+        }
+    }
+
+    /**
+     * The hash code changes when the book is persisted, so only persisted books must be kept in hash based
+     * collections
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
     }
 }
@@ -1,8 +1,6 @@
 package wolox.training.models;
 
 import java.io.Serializable;
-import java.util.HashMap;
-import java.util.List;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -13,10 +11,10 @@ public class BookDTO implements Serializable {
     private String isbn;
     private String title;
     private String subtitle;
-    private List<HashMap<String, String>> publishers;
+    private String publisher;
     private String publishDate;
     private String pageNumber;
-    private List<HashMap<String, String>> authors;
+    private String author;
 
     public Book toBook() {
         Book book = new Book();
@@ -24,9 +22,9 @@ public class BookDTO implements Serializable {
         book.setIsbn(this.isbn);
         book.setTitle(this.title);
         book.setSubtitle(this.subtitle);
-        book.setPublisher(this.publishers.get(0).get("name"));
+        book.setPublisher(this.publisher);
         book.setPages(this.pageNumber);
-        book.setAuthor(this.authors.get(0).get("name"));
+        book.setAuthor(this.author);
         book.setYear(this.publishDate);
 
         return book;
@@ -0,0 +1,27 @@
+package wolox.training.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * This class represent the formats of the book catalog export
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Getter
+@AllArgsConstructor
+public enum BookExportFormat {
+    /**
+     * RFC 4180 comma separated values with a header row
+     */
+    CSV("text/csv;charset=UTF-8", "csv"),
+    /**
+     * One JSON object per line
+     */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+}
@@ -0,0 +1,38 @@
+package wolox.training.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * This class represent the import result of a single ISBN
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Getter
+@AllArgsConstructor
+public class BookImportResult {
+
+    private final String isbn;
+    private final Status status;
+
+    public enum Status {
+        /**
+         * The book was fetched from OpenLibrary and persisted
+         */
+        IMPORTED,
+        /**
+         * The book was already registered
+         */
+        ALREADY_EXISTS,
+        /**
+         * OpenLibrary does not have the book
+         */
+        NOT_FOUND,
+        /**
+         * OpenLibrary has the book but its data does not pass the book validations
+         */
+        INVALID
+    }
+}
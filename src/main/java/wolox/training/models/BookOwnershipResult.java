@@ -0,0 +1,42 @@
+package wolox.training.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * This class represent the result of adding or removing a single book from a user's collection
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Getter
+@AllArgsConstructor
+public class BookOwnershipResult {
+
+    private final Long bookId;
+    private final Status status;
+
+    public enum Status {
+        /**
+         * The book was added to the user's collection
+         */
+        ADDED,
+        /**
+         * The user already had the book
+         */
+        ALREADY_OWNED,
+        /**
+         * The book was removed from the user's collection
+         */
+        REMOVED,
+        /**
+         * The user did not have the book
+         */
+        NOT_OWNED,
+        /**
+         * The book does not exist
+         */
+        NOT_FOUND
+    }
+}
@@ -0,0 +1,33 @@
+package wolox.training.models;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * This class represent a book title or author suggested to complete a prefix
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Getter
+@AllArgsConstructor
+@ApiModel(description = "Title or author completing a prefix")
+public class BookSuggestion {
+
+    @ApiModelProperty(notes = "Suggested text")
+    private final String text;
+
+    @ApiModelProperty(notes = "Field of the suggested text")
+    private final Type type;
+
+    @ApiModelProperty(notes = "Number of books with the suggested text")
+    private final int books;
+
+    public enum Type {
+        TITLE,
+        AUTHOR
+    }
+}
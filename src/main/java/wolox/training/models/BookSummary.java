@@ -0,0 +1,35 @@
+package wolox.training.models;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * This class represent the main attributes of a book, to list it inside other resources
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Getter
+@AllArgsConstructor
+@ApiModel(description = "Main attributes of a book")
+public class BookSummary {
+
+    @ApiModelProperty(notes = "Book's id")
+    private final Long id;
+
+    @ApiModelProperty(notes = "Book's title")
+    private final String title;
+
+    @ApiModelProperty(notes = "Book's author")
+    private final String author;
+
+    @ApiModelProperty(notes = "Book's ISBN")
+    private final String isbn;
+
+    public static BookSummary from(Book book) {
+        return new BookSummary(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn());
+    }
+}
@@ -0,0 +1,43 @@
+package wolox.training.models;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import java.util.List;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class represent a request to add or remove several books from a user's collection
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@ApiModel(description = "Books to add or remove from a user's collection")
+public class BulkBooksRequest {
+
+    /**
+     * Bound of the ids per request. The ids are bound one by one in IN clauses, and PostgreSQL accepts at most 32767
+     * parameters per statement
+     */
+    public static final int MAX_BOOK_IDS = 1000;
+
+    @NotNull
+    @ApiModelProperty(notes = "Operation to apply to all the books", required = true)
+    private Operation operation;
+
+    @NotEmpty
+    @Size(max = MAX_BOOK_IDS)
+    @ApiModelProperty(notes = "Ids of the books, at most " + MAX_BOOK_IDS, required = true)
+    private List<@NotNull Long> bookIds;
+
+    public enum Operation {
+        ADD,
+        REMOVE
+    }
+}
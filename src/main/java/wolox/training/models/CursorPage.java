@@ -0,0 +1,25 @@
+package wolox.training.models;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * This class represent a page of a keyset paginated listing
+ *
+ * @param <T> type of the page items
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private final List<T> items;
+
+    /**
+     * Cursor to request the next page, null if this is the last page
+     */
+    private final Long nextCursor;
+}
@@ -0,0 +1,34 @@
+package wolox.training.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * This class represent the progress of a dump import at a point in time
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class DumpImportProgress {
+
+    /**
+     * Uncompressed byte offset of the dump up to which every record is processed, the import can be resumed from it
+     */
+    private final long offset;
+    private final long readRecords;
+    private final long importedRecords;
+    private final long invalidRecords;
+    private final long elapsedMillis;
+
+    /**
+     * @return the processed records per second since the import started
+     */
+    public long getRecordsPerSecond() {
+        return (importedRecords + invalidRecords) * 1000L / Math.max(1, elapsedMillis);
+    }
+}
@@ -11,6 +11,7 @@ import static wolox.training.utils.ErrorConstants.OBLIGATORY_NAME_FIELD;
 import static wolox.training.utils.ErrorConstants.OBLIGATORY_USERNAME_FIELD;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonProperty.Access;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
@@ -18,24 +19,30 @@ import com.google.common.base.Strings;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.NotNull;
-import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import wolox.training.exceptions.BookAlreadyOwnedException;
 import wolox.training.exceptions.BookNotFoundException;
 
@@ -47,17 +54,18 @@ import wolox.training.exceptions.BookNotFoundException;
  * @since 1.0
  */
 @Entity
-@Table(name = "t_user")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
+@Table(name = "t_user", indexes = @Index(name = "t_user_birthdate_idx", columnList = "birthdate"))
 @ApiModel(description = "Users from Open Library")
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
 @NoArgsConstructor
-@EqualsAndHashCode
 @ToString
 public class User {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "USER_SEQ")
-    @SequenceGenerator(name = "USER_SEQ", sequenceName = "USER_SEQ")
+    @SequenceGenerator(name = "USER_SEQ", sequenceName = "USER_SEQ", allocationSize = 50)
     @Getter
     private Long id;
 
@@ -84,10 +92,24 @@ public class User {
     @Getter
     private LocalDate birthdate;
 
+    /**
+     * Version of the user's bearer tokens, only the tokens issued with the current version are valid. It is only
+     * written by UserRepository#incrementTokenVersion, so saving a deserialized user never resets it
+     */
+    @JsonIgnore
+    @Column(nullable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long tokenVersion;
+
     @NotNull
     @ManyToMany(cascade = {CascadeType.MERGE, CascadeType.REFRESH})
+    @JoinTable(name = "t_user_books", joinColumns = @JoinColumn(name = "users_id"),
+        inverseJoinColumns = @JoinColumn(name = "books_id"),
+        uniqueConstraints = @UniqueConstraint(name = "t_user_books_users_id_books_id_key",
+            columnNames = {"users_id", "books_id"}))
     @ApiModelProperty(notes = "User's books", required = true)
-    private List<Book> books = new ArrayList<>();
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user.books")
+    @ToString.Exclude
+    private Set<Book> books = new HashSet<>();
 
     public void setUsername(String username) {
         checkArgument(!Strings.isNullOrEmpty(username), OBLIGATORY_USERNAME_FIELD);
@@ -99,8 +121,13 @@ public class User {
         this.name = name;
     }
 
+    /**
+     * Set the user password. It is hashed by PasswordService before the user is persisted
+     *
+     * @param password raw password or bcrypt hash
+     */
     public void setPassword(String password) {
-        this.password = new BCryptPasswordEncoder().encode(password);
+        this.password = password;
     }
 
     public void setBirthdate(LocalDate birthdate) {
@@ -109,8 +136,8 @@ public class User {
         this.birthdate = birthdate;
     }
 
-    public List<Book> getBooks() {
-        return Collections.unmodifiableList(books);
+    public Set<Book> getBooks() {
+        return Collections.unmodifiableSet(books);
     }
 
     /**
@@ -121,10 +148,8 @@ public class User {
      * @throws BookAlreadyOwnedException if user already has the book
      */
     public void addBook(Book book) {
-        if (books.contains(checkNotNull(book, BOOK_NOT_NULL))) {
+        if (!books.add(checkNotNull(book, BOOK_NOT_NULL))) {
             throw new BookAlreadyOwnedException(BOOK_ALREADY_OWNED);
-        } else {
-            this.books.add(book);
         }
     }
 
@@ -136,10 +161,27 @@ public class User {
      * @throws BookNotFoundException if user does not have the book to be removed
      */
     public void removeBook(Book book) {
-        if (books.contains(checkNotNull(book, BOOK_NOT_NULL))) {
-            this.books.remove(book);
-        } else {
+        if (!books.remove(checkNotNull(book, BOOK_NOT_NULL))) {
             throw new BookNotFoundException(String.format(BOOK_ID_NOT_FOUND, book.getId()));
         }
     }
+
+    /**
+     * Two users are equal if they have the same id. A user that is not persisted yet is only equal to itself
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        } else if (!(o instanceof User)) {
+            return false;
+        } else {
+            return id != null && id.equals(((User) o).getId());
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
 }
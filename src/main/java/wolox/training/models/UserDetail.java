@@ -0,0 +1,52 @@
+package wolox.training.models;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * This class represent a user and the main attributes of its books
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Getter
+@AllArgsConstructor
+@ApiModel(description = "User and its books")
+public class UserDetail {
+
+    @ApiModelProperty(notes = "User's id")
+    private final Long id;
+
+    @ApiModelProperty(notes = "Username to identify the user in the system")
+    private final String username;
+
+    @ApiModelProperty(notes = "User's real name")
+    private final String name;
+
+    @ApiModelProperty(notes = "User's date of birth")
+    private final LocalDate birthdate;
+
+    @ApiModelProperty(notes = "User's books ordered by id")
+    private final List<BookSummary> books;
+
+    /**
+     * Create the detail of a user. Its books must be already loaded to avoid a query per user
+     *
+     * @param user must not be null
+     * @return the user detail
+     */
+    public static UserDetail from(User user) {
+        List<BookSummary> books = user.getBooks().stream()
+            .sorted(Comparator.comparing(Book::getId))
+            .map(BookSummary::from)
+            .collect(Collectors.toList());
+        return new UserDetail(user.getId(), user.getUsername(), user.getName(), user.getBirthdate(), books);
+    }
+}
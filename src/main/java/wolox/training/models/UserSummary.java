@@ -0,0 +1,36 @@
+package wolox.training.models;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * This class represent a user without its books, to list users with a single query
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Getter
+@AllArgsConstructor
+@ApiModel(description = "User without its books")
+public class UserSummary {
+
+    @ApiModelProperty(notes = "User's id")
+    private final Long id;
+
+    @ApiModelProperty(notes = "Username to identify the user in the system")
+    private final String username;
+
+    @ApiModelProperty(notes = "User's real name")
+    private final String name;
+
+    @ApiModelProperty(notes = "User's date of birth")
+    private final LocalDate birthdate;
+
+    public static UserSummary from(User user) {
+        return new UserSummary(user.getId(), user.getUsername(), user.getName(), user.getBirthdate());
+    }
+}
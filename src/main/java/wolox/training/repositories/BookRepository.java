@@ -1,11 +1,22 @@
 package wolox.training.repositories;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import wolox.training.models.Book;
+import wolox.training.repositories.specifications.BookSpecifications;
 
 /**
  * JPA repository to access to book data
@@ -14,7 +25,7 @@ import wolox.training.models.Book;
  * @version 1.0
  * @since 1.0
  */
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
 
     /**
      * find a book by its author
@@ -28,15 +39,68 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     /**
      * find all books by the same publisher, genre and year
      *
-     * @param publisher can be null
-     * @param genre     can be null
-     * @param year      can be null
-     * @return All books found by the matches
+     * @param publisher can be null, then it is not part of the filter
+     * @param genre     can be null, then it is not part of the filter
+     * @param year      can be null, then it is not part of the filter
+     * @return All books matching all the non null filters
      */
-    @Query("SELECT b FROM Book b WHERE (:publisher IS NULL OR b.publisher = :publisher) OR (:genre IS NULL OR b.genre"
-        + " = :genre) OR (:year IS NULL OR b.year = :year)")
-    List<Book> findAllByPublisherAndGenreAndYear(@Param("publisher") String publisher, @Param("genre") String genre,
-        @Param("year") String year);
+    default List<Book> findAllByPublisherAndGenreAndYear(String publisher, String genre, String year) {
+        return findAll(BookSpecifications.search(publisher, genre, year));
+    }
 
+    /**
+     * find a book by its ISBN. The result is kept in the query cache until the book table changes
+     *
+     * @param isbn must not be null
+     * @return the found book or Optional#empty() if none found
+     */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<Book> findByIsbn(String isbn);
+
+    /**
+     * find which of the given ISBNs are already registered
+     *
+     * @param isbns must not be null
+     * @return the registered ISBNs
+     */
+    @Query("SELECT b.isbn FROM Book b WHERE b.isbn IN :isbns")
+    Set<String> findIsbnsByIsbnIn(@Param("isbns") Collection<String> isbns);
+
+    /**
+     * find the books of the given ISBNs
+     *
+     * @param isbns must not be null
+     * @return the registered books
+     */
+    List<Book> findAllByIsbnIn(Collection<String> isbns);
+
+    /**
+     * find which of the given ids belong to a book
+     *
+     * @param ids must not be null
+     * @return the ids of the existing books
+     */
+    @Query("SELECT b.id FROM Book b WHERE b.id IN :ids")
+    Set<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * find the next page of books after a given id, ordered by id (keyset pagination)
+     *
+     * @param id       the last id of the previous page, must not be null
+     * @param pageable only the page size is used, must not be null
+     * @return the books whose id is greater than the given one
+     */
+    List<Book> findAllByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * stream all books ordered by id using a forward-only cursor. It must be consumed inside a transaction and
+     * closed after use. The books are read after the query returns, so a query cache mode hint does not apply to them:
+     * set CacheMode#IGNORE on the session before streaming, otherwise the scan evicts the hot books of the
+     * second-level cache
+     *
+     * @return a lazy stream of all books
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT b FROM Book b ORDER BY b.id")
+    Stream<Book> streamAll();
 }
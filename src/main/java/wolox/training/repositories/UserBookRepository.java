@@ -0,0 +1,15 @@
+package wolox.training.repositories;
+
+import org.springframework.data.repository.Repository;
+import wolox.training.models.User;
+
+/**
+ * Repository to write the user's books ownership directly on the join table, without loading the user's collection
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+public interface UserBookRepository extends Repository<User, Long>, UserBookRepositoryCustom {
+
+}
@@ -0,0 +1,52 @@
+package wolox.training.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Operations over the user's books ownership. They evict the cached books of the user, because they are not written
+ * through the user entity
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+public interface UserBookRepositoryCustom {
+
+    /**
+     * add a book to the user's books
+     *
+     * @param userId must not be null
+     * @param bookId must not be null
+     * @return 1 if the book was added or 0 if the user already has it
+     */
+    int addBook(Long userId, Long bookId);
+
+    /**
+     * remove a book from the user's books
+     *
+     * @param userId must not be null
+     * @param bookId must not be null
+     * @return 1 if the book was removed or 0 if the user does not have it
+     */
+    int removeBook(Long userId, Long bookId);
+
+    /**
+     * add several books to the user's books in a single statement. Books that do not exist or that the user already has
+     * are skipped
+     *
+     * @param userId  must not be null
+     * @param bookIds must not be null nor empty
+     * @return the ids of the added books
+     */
+    List<Long> addBooks(Long userId, Collection<Long> bookIds);
+
+    /**
+     * remove several books from the user's books in a single statement
+     *
+     * @param userId  must not be null
+     * @param bookIds must not be null nor empty
+     * @return the ids of the removed books
+     */
+    List<Long> removeBooks(Long userId, Collection<Long> bookIds);
+}
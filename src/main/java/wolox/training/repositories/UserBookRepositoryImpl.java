@@ -0,0 +1,99 @@
+package wolox.training.repositories;
+
+import java.util.Collection;
+import java.util.List;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import wolox.training.models.User;
+
+/**
+ * JDBC implementation of the operations over the user's books ownership. Hibernate does not see these writes, so the
+ * cached books of the user are evicted after every write and again when the transaction completes, in case a
+ * concurrent read cached the old books in between
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+public class UserBookRepositoryImpl implements UserBookRepositoryCustom {
+
+    private static final String USER_BOOKS_ROLE = User.class.getName() + ".books";
+    /**
+     * The tables created before the unique constraint of the ownership don't have it and ddl-auto does not add it, so
+     * the owned books are also skipped explicitly
+     */
+    private static final String NOT_OWNED = "NOT EXISTS (SELECT 1 FROM t_user_books ub WHERE ub.users_id = :userId "
+        + "AND ub.books_id = b.id)";
+    private static final String ADD_BOOK = "INSERT INTO t_user_books (users_id, books_id) "
+        + "SELECT :userId, b.id FROM book b WHERE b.id = :bookId AND " + NOT_OWNED + " ON CONFLICT DO NOTHING";
+    private static final String REMOVE_BOOK = "DELETE FROM t_user_books WHERE users_id = :userId "
+        + "AND books_id = :bookId";
+    private static final String ADD_BOOKS = "INSERT INTO t_user_books (users_id, books_id) "
+        + "SELECT :userId, b.id FROM book b WHERE b.id IN (:bookIds) AND " + NOT_OWNED
+        + " ON CONFLICT DO NOTHING RETURNING books_id";
+    private static final String REMOVE_BOOKS = "DELETE FROM t_user_books WHERE users_id = :userId "
+        + "AND books_id IN (:bookIds) RETURNING books_id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Cache cache;
+
+    public UserBookRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate,
+        EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cache = entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+
+    @Override
+    public int addBook(Long userId, Long bookId) {
+        int added = jdbcTemplate.update(ADD_BOOK, new MapSqlParameterSource()
+            .addValue("userId", userId)
+            .addValue("bookId", bookId));
+        evictBooks(userId);
+        return added;
+    }
+
+    @Override
+    public int removeBook(Long userId, Long bookId) {
+        int removed = jdbcTemplate.update(REMOVE_BOOK, new MapSqlParameterSource()
+            .addValue("userId", userId)
+            .addValue("bookId", bookId));
+        evictBooks(userId);
+        return removed;
+    }
+
+    @Override
+    public List<Long> addBooks(Long userId, Collection<Long> bookIds) {
+        List<Long> addedIds = jdbcTemplate.queryForList(ADD_BOOKS, parameters(userId, bookIds), Long.class);
+        evictBooks(userId);
+        return addedIds;
+    }
+
+    @Override
+    public List<Long> removeBooks(Long userId, Collection<Long> bookIds) {
+        List<Long> removedIds = jdbcTemplate.queryForList(REMOVE_BOOKS, parameters(userId, bookIds), Long.class);
+        evictBooks(userId);
+        return removedIds;
+    }
+
+    private MapSqlParameterSource parameters(Long userId, Collection<Long> bookIds) {
+        return new MapSqlParameterSource()
+            .addValue("userId", userId)
+            .addValue("bookIds", bookIds);
+    }
+
+    private void evictBooks(Long userId) {
+        cache.evictCollectionData(USER_BOOKS_ROLE, userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evictCollectionData(USER_BOOKS_ROLE, userId);
+                }
+            });
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package wolox.training.repositories;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import javax.persistence.QueryHint;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import wolox.training.models.User;
+import wolox.training.models.UserSummary;
+import wolox.training.repositories.specifications.UserSpecifications;
 
 /**
  * JPA repository to access to user data
@@ -15,7 +25,7 @@ import wolox.training.models.User;
  * @version 1.0
  * @since 1.0
  */
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
 
     /**
      * find a book by its author
@@ -24,18 +34,66 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return the first found user by the given username or Optional#empty() if none found
      * @throws IllegalArgumentException if author is null
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<User> findOneByUsername(String username);
 
+    /**
+     * find the token version of a user
+     *
+     * @param id must not be null
+     * @return the current token version or Optional#empty() if the user does not exist
+     */
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findTokenVersionById(@Param("id") Long id);
+
+    /**
+     * increment the token version of a user, so the tokens issued before are no longer valid
+     *
+     * @param id must not be null
+     * @return number of updated users, 0 if the user does not exist
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :id")
+    int incrementTokenVersion(@Param("id") Long id);
+
+    /**
+     * find a user by its username, loading its books in the same query
+     *
+     * @param username must not be null
+     * @return the found user or Optional#empty() if none found
+     */
+    @EntityGraph(attributePaths = "books")
+    Optional<User> findWithBooksByUsername(String username);
+
+    /**
+     * find a user by its id, loading its books in the same query
+     *
+     * @param id must not be null
+     * @return the found user or Optional#empty() if none found
+     */
+    @EntityGraph(attributePaths = "books")
+    Optional<User> findWithBooksById(Long id);
+
+    /**
+     * find all users without their books with a single query
+     *
+     * @return the summary of all users ordered by id
+     */
+    @Query("SELECT new wolox.training.models.UserSummary(u.id, u.username, u.name, u.birthdate) FROM User u "
+        + "ORDER BY u.id")
+    List<UserSummary> findAllSummaries();
+
     /**
      * find all user between two birthdates and containing a character sequence in their name
      *
-     * @param startDate can be null
-     * @param endDate   can be null
-     * @param name      can be null
-     * @return all found users
+     * @param startDate can be null, then it is not part of the filter
+     * @param endDate   can be null, then it is not part of the filter
+     * @param name      can be null, then it is not part of the filter
+     * @return all found users matching all the non null filters
      */
-    @Query("SELECT u FROM User u WHERE (:startDate IS NULL OR :endDate IS NULL OR u.birthdate BETWEEN :startDate AND "
-        + ":endDate) OR (:name IS NULL OR UPPER(u.name) LIKE UPPER(:name))")
-    List<User> findAllByBirthdateBetweenAndNameContainingIgnoreCase(@Param("startDate") LocalDate startDate,
-        @Param("endDate") LocalDate endDate, @Param("name") String name);
+    default List<User> findAllByBirthdateBetweenAndNameContainingIgnoreCase(LocalDate startDate, LocalDate endDate,
+        String name) {
+        return findAll(UserSpecifications.search(startDate, endDate, name));
+    }
 }
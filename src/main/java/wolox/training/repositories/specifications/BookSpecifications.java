@@ -0,0 +1,51 @@
+package wolox.training.repositories.specifications;
+
+import org.springframework.data.jpa.domain.Specification;
+import wolox.training.models.Book;
+
+/**
+ * Specifications to build dynamic book queries. Every specification is null when its value is null, so only the given
+ * filters are part of the query
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+public final class BookSpecifications {
+
+    private static final String PUBLISHER = "publisher";
+    private static final String GENRE = "genre";
+    private static final String YEAR = "year";
+
+    private BookSpecifications() {}
+
+    /**
+     * books matching all the given filters
+     *
+     * @param publisher can be null
+     * @param genre     can be null
+     * @param year      can be null
+     * @return the specification of all the non null filters
+     */
+    public static Specification<Book> search(String publisher, String genre, String year) {
+        return Specification.where(hasPublisher(publisher))
+            .and(hasGenre(genre))
+            .and(hasYear(year));
+    }
+
+    public static Specification<Book> hasPublisher(String publisher) {
+        return equalTo(PUBLISHER, publisher);
+    }
+
+    public static Specification<Book> hasGenre(String genre) {
+        return equalTo(GENRE, genre);
+    }
+
+    public static Specification<Book> hasYear(String year) {
+        return equalTo(YEAR, year);
+    }
+
+    private static Specification<Book> equalTo(String attribute, String value) {
+        return value == null ? null : (root, query, builder) -> builder.equal(root.get(attribute), value);
+    }
+}
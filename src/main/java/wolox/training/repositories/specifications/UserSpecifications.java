@@ -0,0 +1,62 @@
+package wolox.training.repositories.specifications;
+
+import java.time.LocalDate;
+import org.springframework.data.jpa.domain.Specification;
+import wolox.training.models.User;
+
+/**
+ * Specifications to build dynamic user queries. Every specification is null when its value is null, so only the given
+ * filters are part of the query
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+public final class UserSpecifications {
+
+    private static final String BIRTHDATE = "birthdate";
+    private static final String NAME = "name";
+    private static final char LIKE_ESCAPE = '\\';
+
+    private UserSpecifications() {}
+
+    /**
+     * users matching all the given filters
+     *
+     * @param startDate can be null
+     * @param endDate   can be null
+     * @param name      can be null
+     * @return the specification of all the non null filters
+     */
+    public static Specification<User> search(LocalDate startDate, LocalDate endDate, String name) {
+        return Specification.where(bornFrom(startDate))
+            .and(bornUntil(endDate))
+            .and(nameContainingIgnoreCase(name));
+    }
+
+    public static Specification<User> bornFrom(LocalDate startDate) {
+        return startDate == null ? null : (root, query, builder) ->
+            builder.greaterThanOrEqualTo(root.get(BIRTHDATE), startDate);
+    }
+
+    public static Specification<User> bornUntil(LocalDate endDate) {
+        return endDate == null ? null : (root, query, builder) ->
+            builder.lessThanOrEqualTo(root.get(BIRTHDATE), endDate);
+    }
+
+    /**
+     * Compare lower(name), which is served by the trigram index on that expression in PostgreSQL
+     */
+    public static Specification<User> nameContainingIgnoreCase(String name) {
+        if (name == null) {
+            return null;
+        }
+
+        String pattern = "%" + name.toLowerCase()
+            .replace(String.valueOf(LIKE_ESCAPE), "" + LIKE_ESCAPE + LIKE_ESCAPE)
+            .replace("%", LIKE_ESCAPE + "%")
+            .replace("_", LIKE_ESCAPE + "_") + "%";
+
+        return (root, query, builder) -> builder.like(builder.lower(root.get(NAME)), pattern, LIKE_ESCAPE);
+    }
+}
@@ -1,8 +1,21 @@
 package wolox.training.security;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -19,14 +32,67 @@ public class CustomAuthenticationProvider implements AuthenticationProvider {
     @Autowired
     private PasswordEncoder encoder;
 
+    /**
+     * Successful verifications by username. Only a keyed digest of the presented password is kept, never the password
+     */
+    private final Cache<String, VerifiedCredentials> verifiedCredentials;
+    private final HashFunction credentialsDigest;
+
+    /**
+     * Number of evictions. A verification is only cached if no eviction happened since its user was loaded, otherwise
+     * it could have checked a hash replaced meanwhile. The counter is global because the user id is not known before
+     * loading the user, and evictions only happen on password changes and deletions
+     */
+    private long evictions;
+    private final Object evictionLock = new Object();
+
+    /**
+     * Duration of the password hash verifications, by result
+     */
+    private final Timer acceptedVerifications;
+    private final Timer rejectedVerifications;
+
+    public CustomAuthenticationProvider(@Value("${security.credentialsCache.maxSize}") long cacheMaxSize,
+        @Value("${security.credentialsCache.ttlSeconds}") long cacheTtlSeconds, MeterRegistry meterRegistry) {
+
+        byte[] digestKey = new byte[32];
+        new SecureRandom().nextBytes(digestKey);
+
+        this.credentialsDigest = Hashing.hmacSha256(digestKey);
+        this.verifiedCredentials = CacheBuilder.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .expireAfterWrite(cacheTtlSeconds, TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+        GuavaCacheMetrics.monitor(meterRegistry, verifiedCredentials, "verifiedCredentials");
+        this.acceptedVerifications = verificationTimer(meterRegistry, "accepted");
+        this.rejectedVerifications = verificationTimer(meterRegistry, "rejected");
+    }
+
     @Override
     public Authentication authenticate(Authentication authentication) {
         final String name = authentication.getName();
         final String password = authentication.getCredentials().toString();
+        final HashCode digest = credentialsDigest.newHasher()
+            .putString(name, StandardCharsets.UTF_8)
+            .putByte((byte) 0)
+            .putString(password, StandardCharsets.UTF_8)
+            .hash();
+
+        VerifiedCredentials cachedCredentials = verifiedCredentials.getIfPresent(name);
+        if (cachedCredentials != null && cachedCredentials.digest.equals(digest)) {
+            return new UsernamePasswordAuthenticationToken(name, password, new ArrayList<>());
+        }
+
+        final long generation = evictionGeneration();
         final Optional<User> optionalUser = userRepository.findOneByUsername(name);
 
-        if (optionalUser.isPresent() &&
-            encoder.matches(password, optionalUser.get().getPassword())) {
+        if (optionalUser.isPresent() && verify(password, optionalUser.get().getPassword())) {
+            synchronized (evictionLock) {
+                if (evictions == generation) {
+                    verifiedCredentials.put(name, new VerifiedCredentials(optionalUser.get().getId(), digest));
+                }
+            }
             return new UsernamePasswordAuthenticationToken(name, password, new ArrayList<>());
         } else {
             return null;
@@ -37,4 +103,45 @@ public class CustomAuthenticationProvider implements AuthenticationProvider {
     public boolean supports(Class<?> authentication) {
         return authentication.equals(UsernamePasswordAuthenticationToken.class);
     }
+
+    /**
+     * Forget the cached verifications of a user, so its next request is verified against the repository. The
+     * verifications running meanwhile are not cached
+     *
+     * @param userId must not be null
+     */
+    public void evictCredentials(Long userId) {
+        synchronized (evictionLock) {
+            evictions++;
+            verifiedCredentials.asMap().values().removeIf(credentials -> userId.equals(credentials.userId));
+        }
+    }
+
+    private long evictionGeneration() {
+        synchronized (evictionLock) {
+            return evictions;
+        }
+    }
+
+    private boolean verify(String password, String hash) {
+        long startTime = System.nanoTime();
+        boolean matches = encoder.matches(password, hash);
+        (matches ? acceptedVerifications : rejectedVerifications)
+            .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        return matches;
+    }
+
+    private static Timer verificationTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("security.password.verifications")
+            .description("Duration of the password hash verifications")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    @AllArgsConstructor
+    private static class VerifiedCredentials {
+
+        private final Long userId;
+        private final HashCode digest;
+    }
 }
@@ -1,6 +1,7 @@
 package wolox.training.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -8,19 +9,47 @@ import org.springframework.security.config.annotation.authentication.builders.Au
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import wolox.training.repositories.UserRepository;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
+    /**
+     * The login issues new tokens, so it needs the password. Otherwise a token could renew itself forever
+     */
+    private static final String LOGIN_PATH = "/users/login";
+
     @Autowired
     private CustomAuthenticationProvider authenticationProvider;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${security.bcrypt.strength}")
+    private int bcryptStrength;
+    @Value("${security.token.secret}")
+    private String tokenSecret;
+    @Value("${security.token.ttlSeconds}")
+    private long tokenTtlSeconds;
+    @Value("${security.tokenVersionCache.maxSize}")
+    private long tokenVersionCacheMaxSize;
+    @Value("${security.tokenVersionCache.ttlSeconds}")
+    private long tokenVersionCacheTtlSeconds;
 
     @Bean
     public PasswordEncoder encoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
+    }
+
+    @Bean
+    public TokenService tokenService() {
+        return new TokenService(tokenSecret, tokenTtlSeconds, tokenVersionCacheMaxSize, tokenVersionCacheTtlSeconds,
+            userRepository);
     }
 
     @Override
@@ -31,6 +60,10 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     @Override
     protected void configure(HttpSecurity http) throws Exception {
         http
+            .addFilterBefore(new TokenAuthenticationFilter(tokenService(),
+                new AntPathRequestMatcher(LOGIN_PATH, HttpMethod.POST.name())), BasicAuthenticationFilter.class)
+            .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+            .and()
             .httpBasic()
             .and()
             .authorizeRequests()
@@ -0,0 +1,58 @@
+package wolox.training.security;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Authenticate the requests that carry a bearer token issued by {@link TokenService}. Requests without a valid token
+ * continue unauthenticated through the filter chain. The requests that must be authenticated with the password, like
+ * the login that issues new tokens, are not authenticated by token
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final TokenService tokenService;
+    private final RequestMatcher passwordOnlyRequests;
+
+    /**
+     * @param tokenService         verifies the tokens
+     * @param passwordOnlyRequests requests that are never authenticated by token
+     */
+    public TokenAuthenticationFilter(TokenService tokenService, RequestMatcher passwordOnlyRequests) {
+        this.tokenService = tokenService;
+        this.passwordOnlyRequests = passwordOnlyRequests;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return passwordOnlyRequests.matches(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.startsWith(BEARER_PREFIX)) {
+            tokenService.verifyToken(authorization.substring(BEARER_PREFIX.length()))
+                .ifPresent(username -> SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(username, null, new ArrayList<>())));
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
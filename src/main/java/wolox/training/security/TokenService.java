@@ -0,0 +1,137 @@
+package wolox.training.security;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import wolox.training.repositories.UserRepository;
+
+/**
+ * Issue and verify signed bearer tokens. A token carries the user id, the user's token version, its issue time and the
+ * username, signed with HMAC-SHA256, so it is verified without running bcrypt. A token is only valid while its version
+ * is the current token version of the user, kept in t_user. The versions are cached for a few seconds, so a
+ * revocation reaches the other instances once their cached version expires
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+public class TokenService {
+
+    private static final String SIGNATURE_SEPARATOR = ".";
+    private static final char PAYLOAD_SEPARATOR = ':';
+
+    private final HashFunction signer;
+    private final long ttlMillis;
+    private final UserRepository userRepository;
+
+    /**
+     * Current token version by user id, Optional#empty() if the user does not exist
+     */
+    private final LoadingCache<Long, Optional<Long>> tokenVersions;
+
+    /**
+     * @param secret                 signing key shared by all the instances, must not be empty
+     * @param ttlSeconds             seconds a token is valid since it is issued
+     * @param versionCacheMaxSize    maximum number of cached token versions
+     * @param versionCacheTtlSeconds seconds a token version is cached, the delay for a revocation made by another
+     *                               instance
+     * @param userRepository         keeps the token versions
+     * @throws IllegalArgumentException if the secret is empty
+     */
+    public TokenService(String secret, long ttlSeconds, long versionCacheMaxSize, long versionCacheTtlSeconds,
+        UserRepository userRepository) {
+
+        checkArgument(!Strings.isNullOrEmpty(secret), "The token secret must be set");
+
+        this.signer = Hashing.hmacSha256(secret.getBytes(StandardCharsets.UTF_8));
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.userRepository = userRepository;
+        this.tokenVersions = CacheBuilder.newBuilder()
+            .maximumSize(versionCacheMaxSize)
+            .expireAfterWrite(versionCacheTtlSeconds, TimeUnit.SECONDS)
+            .build(CacheLoader.from(userRepository::findTokenVersionById));
+    }
+
+    /**
+     * @return seconds a token is valid since it is issued
+     */
+    public long getTtlSeconds() {
+        return TimeUnit.MILLISECONDS.toSeconds(ttlMillis);
+    }
+
+    /**
+     * Issue a new token for a user
+     *
+     * @param userId   must not be null
+     * @param username must not be null
+     * @return the signed token
+     */
+    public String issueToken(Long userId, String username) {
+        long tokenVersion = tokenVersions.getUnchecked(userId).orElse(-1L);
+        String payload = Base64.getUrlEncoder().withoutPadding().encodeToString(
+            (userId + ":" + tokenVersion + ":" + System.currentTimeMillis() + ":" + username)
+                .getBytes(StandardCharsets.UTF_8));
+
+        return payload + SIGNATURE_SEPARATOR + sign(payload);
+    }
+
+    /**
+     * Verify a token
+     *
+     * @param token can be null
+     * @return the username the token was issued for or Optional#empty() if the token is malformed, its signature is
+     * wrong, it is expired or it was revoked
+     */
+    public Optional<String> verifyToken(String token) {
+        int separatorIndex = token == null ? -1 : token.indexOf(SIGNATURE_SEPARATOR);
+        if (separatorIndex < 0) {
+            return Optional.empty();
+        }
+
+        String payload = token.substring(0, separatorIndex);
+        byte[] signature = token.substring(separatorIndex + 1).getBytes(StandardCharsets.UTF_8);
+        if (!MessageDigest.isEqual(signature, sign(payload).getBytes(StandardCharsets.UTF_8))) {
+            return Optional.empty();
+        }
+
+        List<String> claims = Splitter.on(PAYLOAD_SEPARATOR).limit(4)
+            .splitToList(new String(Base64.getUrlDecoder().decode(payload), StandardCharsets.UTF_8));
+        Long userId = Long.valueOf(claims.get(0));
+        long tokenVersion = Long.parseLong(claims.get(1));
+        long issuedAt = Long.parseLong(claims.get(2));
+
+        if (issuedAt + ttlMillis < System.currentTimeMillis()
+            || !tokenVersions.getUnchecked(userId).map(version -> version == tokenVersion).orElse(false)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(claims.get(3));
+    }
+
+    /**
+     * Revoke all the tokens issued to a user until now, incrementing its token version
+     *
+     * @param userId must not be null
+     */
+    public void revokeTokens(Long userId) {
+        userRepository.incrementTokenVersion(userId);
+        tokenVersions.invalidate(userId);
+    }
+
+    private String sign(String payload) {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(signer.hashString(payload, StandardCharsets.UTF_8).asBytes());
+    }
+}
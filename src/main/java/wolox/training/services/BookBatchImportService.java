@@ -0,0 +1,162 @@
+package wolox.training.services;
+
+import com.google.common.collect.Lists;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import wolox.training.models.Book;
+import wolox.training.models.BookDTO;
+import wolox.training.models.BookImportResult;
+import wolox.training.models.BookImportResult.Status;
+import wolox.training.repositories.BookRepository;
+
+/**
+ * Service to import a list of ISBNs from OpenLibrary. The missing books are requested in chunks of several ISBNs and
+ * persisted with JDBC batch inserts. Hibernate does not see these inserts, so the cached query results are evicted
+ * after them
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class BookBatchImportService {
+
+    private static final String INSERT_BOOKS = "INSERT INTO book (id, author, genre, image, isbn, pages, "
+        + "publisher, subtitle, title, year) VALUES %s ON CONFLICT (isbn) DO NOTHING RETURNING isbn";
+    private static final String BOOK_VALUES = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String RESERVE_IDS = "SELECT nextval('book_seq') FROM generate_series(1, %d)";
+    private static final RowMapper<String> ISBN_MAPPER = (resultSet, rowNum) -> resultSet.getString(1);
+
+    private final BookRepository bookRepository;
+    private final OpenLibraryService openLibraryService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache cache;
+
+    @Value("${books.import.batchSize}")
+    private int batchSize;
+
+    public BookBatchImportService(BookRepository bookRepository, OpenLibraryService openLibraryService,
+        JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+        EntityManagerFactory entityManagerFactory) {
+
+        this.bookRepository = bookRepository;
+        this.openLibraryService = openLibraryService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cache = entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+
+    /**
+     * Import the books of the given ISBNs that are not registered yet
+     *
+     * @param isbns must not be null
+     * @return the import result of every distinct ISBN, in the same order they were given
+     */
+    public List<BookImportResult> importByIsbns(List<String> isbns) {
+        Map<String, Status> statuses = new LinkedHashMap<>();
+        new LinkedHashSet<>(isbns).forEach(isbn -> statuses.put(isbn, null));
+
+        Set<String> registeredIsbns = new HashSet<>();
+        for (List<String> chunk : Lists.partition(new ArrayList<>(statuses.keySet()), batchSize)) {
+            registeredIsbns.addAll(bookRepository.findIsbnsByIsbnIn(chunk));
+        }
+        registeredIsbns.forEach(isbn -> statuses.put(isbn, Status.ALREADY_EXISTS));
+
+        List<String> missingIsbns = statuses.keySet().stream()
+            .filter(isbn -> !registeredIsbns.contains(isbn))
+            .collect(Collectors.toList());
+        Map<String, BookDTO> foundBooks = openLibraryService.booksInfo(missingIsbns);
+
+        List<Book> books = new ArrayList<>();
+        for (String isbn : missingIsbns) {
+            BookDTO bookDTO = foundBooks.get(isbn);
+            if (bookDTO == null) {
+                statuses.put(isbn, Status.NOT_FOUND);
+            } else {
+                try {
+                    books.add(bookDTO.toBook());
+                } catch (IllegalArgumentException e) {
+                    statuses.put(isbn, Status.INVALID);
+                }
+            }
+        }
+
+        Set<String> insertedIsbns = insertAll(books);
+        books.forEach(book -> statuses.put(book.getIsbn(),
+            insertedIsbns.contains(book.getIsbn()) ? Status.IMPORTED : Status.ALREADY_EXISTS));
+
+        return statuses.entrySet().stream()
+            .map(entry -> new BookImportResult(entry.getKey(), entry.getValue()))
+            .collect(Collectors.toList());
+    }
+
+    private Set<String> insertAll(List<Book> books) {
+        if (books.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Set<String> insertedIsbns = transactionTemplate.execute(status ->
+            insertMissing(jdbcTemplate, books, batchSize));
+        cache.evictQueryRegions();
+        return insertedIsbns;
+    }
+
+    /**
+     * Insert the books whose ISBN is not registered yet. Every chunk is sent as one multi-row insert that returns the
+     * inserted ISBNs: the update counts of a JDBC batch can't tell the skipped rows apart, because the driver answers
+     * SUCCESS_NO_INFO for every row when it rewrites the batch. The ids are reserved like the pooled-lo optimizer of
+     * Hibernate does, one sequence value per {@link Book#ID_ALLOCATION_SIZE} books, all in a single query
+     *
+     * @param jdbcTemplate must not be null
+     * @param books        must not be null
+     * @param batchSize    number of books per statement
+     * @return the ISBNs of the inserted books
+     */
+    static Set<String> insertMissing(JdbcTemplate jdbcTemplate, List<Book> books, int batchSize) {
+        int idBlocks = (books.size() + Book.ID_ALLOCATION_SIZE - 1) / Book.ID_ALLOCATION_SIZE;
+        List<Long> idBlockStarts = jdbcTemplate.queryForList(String.format(RESERVE_IDS, idBlocks), Long.class);
+
+        Set<String> insertedIsbns = new HashSet<>();
+        int firstBook = 0;
+        for (List<Book> chunk : Lists.partition(books, batchSize)) {
+            String sql = String.format(INSERT_BOOKS, String.join(", ", Collections.nCopies(chunk.size(), BOOK_VALUES)));
+            int chunkFirstBook = firstBook;
+            insertedIsbns.addAll(jdbcTemplate.query(sql, ps -> {
+                int index = 0;
+                int bookIndex = chunkFirstBook;
+                for (Book book : chunk) {
+                    ps.setLong(++index, idBlockStarts.get(bookIndex / Book.ID_ALLOCATION_SIZE)
+                        + bookIndex % Book.ID_ALLOCATION_SIZE);
+                    bookIndex++;
+                    ps.setString(++index, book.getAuthor());
+                    ps.setString(++index, book.getGenre());
+                    ps.setString(++index, book.getImage());
+                    ps.setString(++index, book.getIsbn());
+                    ps.setString(++index, book.getPages());
+                    ps.setString(++index, book.getPublisher());
+                    ps.setString(++index, book.getSubtitle());
+                    ps.setString(++index, book.getTitle());
+                    ps.setString(++index, book.getYear());
+                }
+            }, ISBN_MAPPER));
+            firstBook += chunk.size();
+        }
+        return insertedIsbns;
+    }
+}
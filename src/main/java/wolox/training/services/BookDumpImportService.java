@@ -0,0 +1,339 @@
+package wolox.training.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Throwables;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import wolox.training.models.Book;
+import wolox.training.models.DumpImportProgress;
+
+/**
+ * Service to load the books of an OpenLibrary editions dump from the local disk. The dump is read by one thread and
+ * handed in chunks of lines through a bounded queue to a pool of workers, which parse and validate the records and
+ * persist the valid ones with JDBC batch inserts. Already registered ISBNs are skipped, so an interrupted import can
+ * be resumed from the last reported offset without duplicating books
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class BookDumpImportService {
+
+    private static final String GZIP_EXTENSION = ".gz";
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final DumpChunk END_OF_DUMP = new DumpChunk(-1, Collections.emptyList(), -1);
+
+    private final OpenLibraryDumpRecordParser recordParser;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache cache;
+    private final int batchSize;
+    private final int workers;
+    private final int queueCapacity;
+    private final long progressIntervalNanos;
+
+    public BookDumpImportService(ObjectMapper objectMapper, JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager, EntityManagerFactory entityManagerFactory,
+        @Value("${books.dump.batchSize}") int batchSize,
+        @Value("${books.dump.workers}") int workers,
+        @Value("${books.dump.queueCapacity}") int queueCapacity,
+        @Value("${books.dump.progressIntervalSeconds}") long progressIntervalSeconds) {
+
+        this.recordParser = new OpenLibraryDumpRecordParser(objectMapper.getFactory());
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        this.batchSize = batchSize;
+        this.workers = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = queueCapacity;
+        this.progressIntervalNanos = TimeUnit.SECONDS.toNanos(progressIntervalSeconds);
+    }
+
+    /**
+     * Import the books of a dump with one JSON edition record per line, gzip compressed if its name ends with .gz
+     *
+     * @param dump             must not be null
+     * @param startOffset      uncompressed byte offset of the first line to import, 0 to import the whole dump
+     * @param progressListener receives the progress periodically and when the import ends, it is called by one thread
+     *                         at a time
+     * @return the final progress
+     * @throws IOException if the dump can't be read, the records before the last reported offset are imported anyway
+     */
+    public DumpImportProgress importDump(Path dump, long startOffset, Consumer<DumpImportProgress> progressListener)
+        throws IOException {
+
+        BlockingQueue<DumpChunk> queue = new ArrayBlockingQueue<>(queueCapacity);
+        ImportTracker tracker = new ImportTracker(startOffset, progressListener);
+        CountDownLatch finishedWorkers = new CountDownLatch(workers);
+        ExecutorService executor = Executors.newFixedThreadPool(workers,
+            new ThreadFactoryBuilder().setNameFormat("book-dump-%d").build());
+        for (int i = 0; i < workers; i++) {
+            executor.execute(() -> {
+                try {
+                    consume(queue, tracker);
+                } finally {
+                    finishedWorkers.countDown();
+                }
+            });
+        }
+
+        DumpImportProgress progress;
+        try {
+            produce(dump, startOffset, queue, tracker);
+        } finally {
+            for (int i = 0; i < workers; i++) {
+                Uninterruptibles.putUninterruptibly(queue, END_OF_DUMP);
+            }
+            executor.shutdown();
+            Uninterruptibles.awaitUninterruptibly(finishedWorkers);
+            cache.evictQueryRegions();
+            progress = tracker.report();
+        }
+
+        tracker.throwIfFailed();
+        return progress;
+    }
+
+    private void produce(Path dump, long startOffset, BlockingQueue<DumpChunk> queue, ImportTracker tracker)
+        throws IOException {
+
+        try (DumpReader reader = new DumpReader(dump, startOffset)) {
+            long sequence = 0;
+            long chunkOffset = startOffset;
+            List<String> lines = new ArrayList<>(batchSize);
+            String line;
+
+            while (!tracker.isFailed() && (line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    lines.add(line);
+                }
+                if (lines.size() == batchSize) {
+                    tracker.read(lines.size());
+                    Uninterruptibles.putUninterruptibly(queue, new DumpChunk(sequence++, lines, reader.getOffset()));
+                    chunkOffset = reader.getOffset();
+                    lines = new ArrayList<>(batchSize);
+                }
+            }
+            if (!tracker.isFailed() && reader.getOffset() > chunkOffset) {
+                tracker.read(lines.size());
+                Uninterruptibles.putUninterruptibly(queue, new DumpChunk(sequence, lines, reader.getOffset()));
+            }
+        }
+    }
+
+    /**
+     * Take chunks until the end of the dump. After a failure the remaining chunks are taken without importing them,
+     * so the producer is never blocked on a full queue
+     */
+    private void consume(BlockingQueue<DumpChunk> queue, ImportTracker tracker) {
+        DumpChunk chunk;
+        while ((chunk = Uninterruptibles.takeUninterruptibly(queue)) != END_OF_DUMP) {
+            if (tracker.isFailed()) {
+                continue;
+            }
+            try {
+                importChunk(chunk, tracker);
+            } catch (Throwable e) {
+                tracker.fail(e);
+            }
+        }
+    }
+
+    private void importChunk(DumpChunk chunk, ImportTracker tracker) {
+        List<Book> books = new ArrayList<>(chunk.lines.size());
+        int invalidRecords = 0;
+        for (String line : chunk.lines) {
+            try {
+                books.add(recordParser.parse(line).toBook());
+            } catch (IOException | IllegalArgumentException e) {
+                invalidRecords++;
+            }
+        }
+
+        int importedRecords = 0;
+        if (!books.isEmpty()) {
+            importedRecords = transactionTemplate.execute(status ->
+                BookBatchImportService.insertMissing(jdbcTemplate, books, batchSize)).size();
+        }
+
+        tracker.complete(chunk, importedRecords, invalidRecords);
+    }
+
+    /**
+     * Consecutive lines of the dump and the offset after the last one
+     */
+    private static final class DumpChunk {
+
+        private final long sequence;
+        private final List<String> lines;
+        private final long endOffset;
+
+        private DumpChunk(long sequence, List<String> lines, long endOffset) {
+            this.sequence = sequence;
+            this.lines = lines;
+            this.endOffset = endOffset;
+        }
+    }
+
+    /**
+     * Counters of the import. The chunks are completed out of order by the workers, so the resumable offset only
+     * moves forward when all the previous chunks are completed
+     */
+    private final class ImportTracker {
+
+        private final long startTime = System.nanoTime();
+        private final Consumer<DumpImportProgress> progressListener;
+        private final Map<Long, Long> completedOffsets = new HashMap<>();
+        private volatile Throwable failure;
+        private long nextSequence;
+        private long offset;
+        private long readRecords;
+        private long importedRecords;
+        private long invalidRecords;
+        private long lastReportTime = startTime;
+
+        private ImportTracker(long startOffset, Consumer<DumpImportProgress> progressListener) {
+            this.offset = startOffset;
+            this.progressListener = progressListener;
+        }
+
+        private synchronized void read(int records) {
+            readRecords += records;
+        }
+
+        private synchronized void complete(DumpChunk chunk, int imported, int invalid) {
+            importedRecords += imported;
+            invalidRecords += invalid;
+            completedOffsets.put(chunk.sequence, chunk.endOffset);
+
+            Long completedOffset;
+            while ((completedOffset = completedOffsets.remove(nextSequence)) != null) {
+                offset = completedOffset;
+                nextSequence++;
+            }
+            if (System.nanoTime() - lastReportTime >= progressIntervalNanos) {
+                report();
+            }
+        }
+
+        private synchronized DumpImportProgress report() {
+            lastReportTime = System.nanoTime();
+            DumpImportProgress progress = new DumpImportProgress(offset, readRecords, importedRecords, invalidRecords,
+                TimeUnit.NANOSECONDS.toMillis(lastReportTime - startTime));
+            progressListener.accept(progress);
+            return progress;
+        }
+
+        private synchronized void fail(Throwable e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+
+        private boolean isFailed() {
+            return failure != null;
+        }
+
+        private void throwIfFailed() {
+            if (failure != null) {
+                Throwables.throwIfUnchecked(failure);
+                throw new IllegalStateException(failure);
+            }
+        }
+    }
+
+    /**
+     * Line reader that keeps the uncompressed byte offset of the dump
+     */
+    private static final class DumpReader implements Closeable {
+
+        private final InputStream input;
+        private long offset;
+        private byte[] line = new byte[1024];
+
+        private DumpReader(Path dump, long startOffset) throws IOException {
+            if (dump.getFileName().toString().endsWith(GZIP_EXTENSION)) {
+                InputStream compressed = new BufferedInputStream(Files.newInputStream(dump), BUFFER_SIZE);
+                input = new BufferedInputStream(new GZIPInputStream(compressed, BUFFER_SIZE), BUFFER_SIZE);
+                try {
+                    ByteStreams.skipFully(input, startOffset);
+                } catch (IOException e) {
+                    input.close();
+                    throw e;
+                }
+            } else {
+                SeekableByteChannel channel = Files.newByteChannel(dump);
+                channel.position(startOffset);
+                input = new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE);
+            }
+            offset = startOffset;
+        }
+
+        /**
+         * @return the next line without its terminator, or null at the end of the dump
+         */
+        private String readLine() throws IOException {
+            int length = 0;
+            int next;
+            while ((next = input.read()) != -1) {
+                offset++;
+                if (next == '\n') {
+                    break;
+                }
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, length * 2);
+                }
+                line[length++] = (byte) next;
+            }
+
+            if (next == -1 && length == 0) {
+                return null;
+            }
+            if (length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+            return new String(line, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private long getOffset() {
+            return offset;
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package wolox.training.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.zip.GZIPOutputStream;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import wolox.training.models.BookExportFormat;
+
+/**
+ * Service to export the whole book catalog for analytics. The rows are read with plain JDBC through a forward-only
+ * cursor and written as soon as they are read, so no entity is loaded in the persistence context and the memory used
+ * does not depend on the table size
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class BookExportService {
+
+    static final String[] COLUMNS = {"id", "isbn", "title", "subtitle", "author", "publisher", "genre", "year",
+        "pages", "image"};
+    static final String SELECT_BOOKS = "SELECT " + String.join(", ", COLUMNS) + " FROM book ORDER BY id";
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String CSV_LINE_END = "\r\n";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonFactory jsonFactory;
+
+    /**
+     * @param fetchSize rows fetched per round trip. PostgreSQL only honors it inside a transaction, otherwise the
+     *                  whole result set is loaded in memory
+     */
+    public BookExportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+        ObjectMapper objectMapper, @Value("${books.export.fetchSize}") int fetchSize) {
+
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Write all the books ordered by id, without their users
+     *
+     * @param format       must not be null
+     * @param gzip         whether the output is gzip compressed
+     * @param outputStream must not be null, it is not closed
+     * @return the number of exported books
+     * @throws IOException if the output stream can not be written
+     */
+    public long writeAll(BookExportFormat format, boolean gzip, OutputStream outputStream) throws IOException {
+        GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(outputStream, BUFFER_SIZE) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip ? gzipStream : outputStream,
+            StandardCharsets.UTF_8), BUFFER_SIZE);
+        RowWriter rowWriter = format == BookExportFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+
+        Long rows;
+        try {
+            rows = transactionTemplate.execute(status -> jdbcTemplate.query(SELECT_BOOKS,
+                (ResultSetExtractor<Long>) resultSet -> {
+                    try {
+                        rowWriter.writeHeader();
+                        long count = 0;
+                        while (resultSet.next()) {
+                            rowWriter.writeRow(resultSet);
+                            count++;
+                        }
+                        rowWriter.flush();
+                        return count;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+        if (gzipStream != null) {
+            gzipStream.finish();
+        }
+        return rows == null ? 0 : rows;
+    }
+
+    /**
+     * Writer of the rows of the book table in one export format
+     */
+    private interface RowWriter {
+
+        void writeHeader() throws IOException;
+
+        void writeRow(ResultSet resultSet) throws IOException, SQLException;
+
+        void flush() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        private CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void writeHeader() throws IOException {
+            writer.write(String.join(",", COLUMNS));
+            writer.write(CSV_LINE_END);
+        }
+
+        @Override
+        public void writeRow(ResultSet resultSet) throws IOException, SQLException {
+            for (int i = 1; i <= COLUMNS.length; i++) {
+                if (i > 1) {
+                    writer.write(',');
+                }
+                writeField(resultSet.getString(i));
+            }
+            writer.write(CSV_LINE_END);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        /**
+         * Quote the field if it has a separator, a quote or a line break, doubling its quotes
+         */
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean quoted = false;
+            for (int i = 0; i < value.length() && !quoted; i++) {
+                char c = value.charAt(i);
+                quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quoted) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+
+        private final Writer writer;
+        private final JsonGenerator generator;
+
+        private NdjsonRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            this.generator = jsonFactory.createGenerator(writer);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void writeHeader() {
+            // Every line is a self-described object
+        }
+
+        @Override
+        public void writeRow(ResultSet resultSet) throws IOException, SQLException {
+            generator.writeStartObject();
+            generator.writeNumberField(COLUMNS[0], resultSet.getLong(1));
+            for (int i = 2; i <= COLUMNS.length; i++) {
+                generator.writeStringField(COLUMNS[i - 1], resultSet.getString(i));
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+    }
+}
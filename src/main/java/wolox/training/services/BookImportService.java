@@ -0,0 +1,88 @@
+package wolox.training.services;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import wolox.training.exceptions.BookNotFoundException;
+import wolox.training.exceptions.OpenLibraryUnavailableException;
+import wolox.training.models.Book;
+import wolox.training.repositories.BookRepository;
+import wolox.training.utils.CompletableFutures;
+
+/**
+ * Service to import books from OpenLibrary into the book repository. Concurrent imports of the same ISBN share a
+ * single fetch-and-persist operation, so a burst of requests makes one remote call and one insert. No thread waits
+ * for OpenLibrary: the book is persisted by the task executor once the remote response arrives
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class BookImportService {
+
+    private final BookRepository bookRepository;
+    private final OpenLibraryService openLibraryService;
+    private final Executor executor;
+    private final ConcurrentMap<String, CompletableFuture<Book>> inFlightImports = new ConcurrentHashMap<>();
+
+    public BookImportService(BookRepository bookRepository, OpenLibraryService openLibraryService,
+        TaskExecutor executor) {
+        this.bookRepository = bookRepository;
+        this.openLibraryService = openLibraryService;
+        this.executor = executor;
+    }
+
+    /**
+     * Import a book by its ISBN. If an import of the same ISBN is already running, wait for it and return its result
+     *
+     * @param isbn must not be null
+     * @return the persisted book
+     * @throws BookNotFoundException           if OpenLibrary does not have the book
+     * @throws OpenLibraryUnavailableException if OpenLibrary can't be queried
+     */
+    public Book importByIsbn(String isbn) {
+        return CompletableFutures.join(importByIsbnAsync(isbn));
+    }
+
+    /**
+     * Import a book by its ISBN without waiting for OpenLibrary. If an import of the same ISBN is already running,
+     * return it
+     *
+     * @param isbn must not be null
+     * @return a future completed with the persisted book, or with BookNotFoundException if OpenLibrary does not have
+     * the book, or with OpenLibraryUnavailableException if OpenLibrary can't be queried
+     */
+    public CompletableFuture<Book> importByIsbnAsync(String isbn) {
+        CompletableFuture<Book> importFuture = new CompletableFuture<>();
+        CompletableFuture<Book> inFlightImport = inFlightImports.putIfAbsent(isbn, importFuture);
+
+        if (inFlightImport != null) {
+            return inFlightImport;
+        }
+
+        CompletableFuture<Book> persistedBook;
+        try {
+            Optional<Book> existingBook = bookRepository.findByIsbn(isbn);
+            persistedBook = existingBook.isPresent() ? CompletableFuture.completedFuture(existingBook.get()) :
+                openLibraryService.bookInfoAsync(isbn)
+                    .thenApplyAsync(bookDTO -> bookRepository.save(bookDTO.toBook()), executor);
+        } catch (RuntimeException e) {
+            persistedBook = CompletableFutures.failed(e);
+        }
+
+        persistedBook.whenComplete((book, error) -> {
+            inFlightImports.remove(isbn, importFuture);
+            if (error == null) {
+                importFuture.complete(book);
+            } else {
+                importFuture.completeExceptionally(CompletableFutures.unwrap(error));
+            }
+        });
+        return importFuture;
+    }
+}
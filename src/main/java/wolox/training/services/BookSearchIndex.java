@@ -0,0 +1,255 @@
+package wolox.training.services;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import wolox.training.models.Book;
+import wolox.training.repositories.BookRepository;
+
+/**
+ * In-memory inverted index over the title, subtitle and author of the books. Every word of a query must match a
+ * word of the book, the last characters of a query word can be missing (prefix matching) and the results are ranked
+ * by a field weighted TF-IDF score
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class BookSearchIndex {
+
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float AUTHOR_WEIGHT = 2f;
+    private static final float SUBTITLE_WEIGHT = 1f;
+    private static final float PREFIX_MATCH_FACTOR = 0.5f;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final BookRepository bookRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> bookTerms = new HashMap<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public BookSearchIndex(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    /**
+     * Build the index from all the persisted books. Searches wait until the index is built
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        lock.writeLock().lock();
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            postings.clear();
+            bookTerms.clear();
+            Iterator<Book> iterator = books.iterator();
+            while (iterator.hasNext()) {
+                Book book = iterator.next();
+                add(book);
+                entityManager.detach(book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add a book to the index or replace its previous version
+     *
+     * @param book a persisted book, if it is null or not persisted nothing is done
+     */
+    public void index(Book book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            remove(book.getId());
+            add(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add several books to the index or replace their previous versions
+     *
+     * @param books must not be null
+     */
+    public void indexAll(Iterable<Book> books) {
+        books.forEach(this::index);
+    }
+
+    /**
+     * Remove a book from the index
+     *
+     * @param bookId must not be null
+     */
+    public void delete(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            remove(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the books matching all the words of a query, the best ranked first
+     *
+     * @param query    free text, the words shorter than the indexed ones match as prefixes
+     * @param pageable page number and size, the sort is ignored because the results are sorted by rank
+     * @return the page of matching books
+     */
+    public Page<Book> search(String query, Pageable pageable) {
+        List<Long> rankedIds = rank(tokenize(query));
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), rankedIds.size());
+        List<Long> pageIds = rankedIds.subList(from, to);
+
+        Map<Long, Book> books = pageIds.isEmpty() ? Collections.emptyMap() :
+            bookRepository.findAllById(pageIds).stream().collect(Collectors.toMap(Book::getId, Function.identity()));
+        List<Book> content = pageIds.stream()
+            .map(books::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+
+        return new PageImpl<>(content, pageable, rankedIds.size());
+    }
+
+    /**
+     * Split a text into normalized words: lower case, without diacritics and without punctuation
+     *
+     * @param text can be null
+     * @return the words of the text
+     */
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return Collections.emptyList();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+            .toLowerCase(Locale.ROOT);
+        return Arrays.stream(SEPARATORS.split(normalized))
+            .filter(word -> !word.isEmpty())
+            .collect(Collectors.toList());
+    }
+
+    private List<Long> rank(List<String> words) {
+        if (words.isEmpty()) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (String word : words) {
+                Map<Long, Float> wordScores = score(word);
+                if (scores == null) {
+                    scores = wordScores;
+                } else {
+                    scores.keySet().retainAll(wordScores.keySet());
+                    scores.replaceAll((bookId, score) -> score + wordScores.get(bookId));
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+            return scores.entrySet().stream()
+                .sorted(Entry.<Long, Float>comparingByValue(Comparator.reverseOrder())
+                    .thenComparing(Entry.<Long, Float>comparingByKey()))
+                .map(Entry::getKey)
+                .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Float> score(String word) {
+        Map<Long, Float> scores = new HashMap<>();
+        int indexedBooks = bookTerms.size();
+        for (Entry<String, Map<Long, Float>> posting : postings.subMap(word, true, word + Character.MAX_VALUE, true)
+            .entrySet()) {
+            float factor = posting.getKey().equals(word) ? 1f : PREFIX_MATCH_FACTOR;
+            float idf = (float) Math.log(1 + (double) indexedBooks / posting.getValue().size());
+            posting.getValue().forEach((bookId, weight) ->
+                scores.merge(bookId, weight * idf * factor, Float::sum));
+        }
+        return scores;
+    }
+
+    private void add(Book book) {
+        Map<String, Float> weights = new HashMap<>();
+        addWeights(weights, book.getTitle(), TITLE_WEIGHT);
+        addWeights(weights, book.getAuthor(), AUTHOR_WEIGHT);
+        addWeights(weights, book.getSubtitle(), SUBTITLE_WEIGHT);
+
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, key -> new HashMap<>())
+            .put(book.getId(), weight));
+        bookTerms.put(book.getId(), weights.keySet());
+    }
+
+    private void addWeights(Map<String, Float> weights, String text, float weight) {
+        for (String term : tokenize(text)) {
+            weights.merge(term, weight, Float::sum);
+        }
+    }
+
+    private void remove(Long bookId) {
+        Set<String> terms = bookTerms.remove(bookId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Float> termPostings = postings.get(term);
+            termPostings.remove(bookId);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * @return the number of indexed books
+     */
+    int size() {
+        lock.readLock().lock();
+        try {
+            return bookTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package wolox.training.services;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import wolox.training.models.Book;
+import wolox.training.repositories.BookRepository;
+
+/**
+ * Service to write the whole book catalog as a JSON array row by row, so the memory used per request does not depend
+ * on the table size
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class BookStreamingService {
+
+    private static final int FLUSH_INTERVAL = 500;
+
+    private final BookRepository bookRepository;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public BookStreamingService(BookRepository bookRepository, ObjectMapper objectMapper) {
+        this.bookRepository = bookRepository;
+        this.objectMapper = objectMapper.copy().disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Write all the books as a JSON array. Every book is detached once written to keep the persistence context flat,
+     * the books are not put in the second-level cache, and the output is flushed every few hundred books instead of
+     * after every book
+     *
+     * @param outputStream must not be null, it is not closed
+     * @return the number of written books
+     * @throws IOException if the output stream can not be written
+     */
+    @Transactional(readOnly = true)
+    public long writeAll(OutputStream outputStream) throws IOException {
+        long written = 0;
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        try (Stream<Book> books = bookRepository.streamAll();
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            Iterator<Book> iterator = books.iterator();
+            while (iterator.hasNext()) {
+                Book book = iterator.next();
+                generator.writeObject(book);
+                entityManager.detach(book);
+                if (++written % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+            generator.writeEndArray();
+        }
+        return written;
+    }
+}
@@ -0,0 +1,242 @@
+package wolox.training.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import wolox.training.models.Book;
+import wolox.training.models.BookSuggestion;
+import wolox.training.models.BookSuggestion.Type;
+import wolox.training.repositories.BookRepository;
+import wolox.training.services.SuggestionTrie.Suggestion;
+
+/**
+ * Service to suggest book titles and authors starting with a prefix. The suggestions are kept in memory in two prefix
+ * trees, one per field, sharing a maximum number of nodes. When the budget is spent new suggestions are dropped until
+ * the next rebuild
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class BookSuggestionService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BookSuggestionService.class);
+    private static final Comparator<BookSuggestion> RANKING = Comparator.comparingInt(BookSuggestion::getBooks)
+        .reversed().thenComparing(BookSuggestion::getType);
+
+    private final BookRepository bookRepository;
+    private final int maxNodes;
+    private final int maxSuggestions;
+    private final SuggestionTrie titles;
+    private final SuggestionTrie authors;
+    private final Map<Long, IndexedBook> indexedBooks = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long droppedSuggestions;
+    private volatile long lastRebuildMillis;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public BookSuggestionService(BookRepository bookRepository,
+        @Value("${books.suggestions.maxNodes}") int maxNodes,
+        @Value("${books.suggestions.maxSize}") int maxSuggestions) {
+        this.bookRepository = bookRepository;
+        this.maxNodes = maxNodes;
+        this.maxSuggestions = maxSuggestions;
+        this.titles = new SuggestionTrie(maxSuggestions);
+        this.authors = new SuggestionTrie(maxSuggestions);
+    }
+
+    /**
+     * Build the suggestions from all the persisted books and record how long it took. Suggestions wait until they
+     * are built
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            titles.clear();
+            authors.clear();
+            indexedBooks.clear();
+            droppedSuggestions = 0;
+            Iterator<Book> iterator = books.iterator();
+            while (iterator.hasNext()) {
+                Book book = iterator.next();
+                add(book);
+                entityManager.detach(book);
+            }
+            lastRebuildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            LOGGER.info("Book suggestions rebuilt in {} ms: {} books, {} nodes, {} suggestions dropped",
+                lastRebuildMillis, indexedBooks.size(), titles.getNodeCount() + authors.getNodeCount(),
+                droppedSuggestions);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add the title and author of a book or replace its previous ones
+     *
+     * @param book a persisted book, if it is null or not persisted nothing is done
+     */
+    public void index(Book book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            remove(book.getId());
+            add(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add the titles and authors of several books or replace their previous ones
+     *
+     * @param books must not be null
+     */
+    public void indexAll(Iterable<Book> books) {
+        books.forEach(this::index);
+    }
+
+    /**
+     * Remove the title and author of a book
+     *
+     * @param bookId must not be null
+     */
+    public void delete(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            remove(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the titles and authors starting with a prefix, the ones with more books first
+     *
+     * @param prefix must not be null, case and diacritics are ignored
+     * @param limit  number of suggestions, capped to the configured max size
+     * @return the suggestions
+     */
+    public List<BookSuggestion> suggest(String prefix, int limit) {
+        List<BookSuggestion> suggestions = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            titles.top(prefix).forEach(suggestion -> suggestions.add(toBookSuggestion(suggestion, Type.TITLE)));
+            authors.top(prefix).forEach(suggestion -> suggestions.add(toBookSuggestion(suggestion, Type.AUTHOR)));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return suggestions.stream()
+            .sorted(RANKING)
+            .limit(Math.max(1, Math.min(limit, maxSuggestions)))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * @return milliseconds the last rebuild took
+     */
+    public long getLastRebuildMillis() {
+        return lastRebuildMillis;
+    }
+
+    /**
+     * @return number of nodes used from the memory budget
+     */
+    public int getNodeCount() {
+        lock.readLock().lock();
+        try {
+            return titles.getNodeCount() + authors.getNodeCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of titles and authors that were not added because the memory budget was spent
+     */
+    public long getDroppedSuggestions() {
+        lock.readLock().lock();
+        try {
+            return droppedSuggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Book book) {
+        String title = addWithinBudget(titles, book.getTitle());
+        String author = addWithinBudget(authors, book.getAuthor());
+        indexedBooks.put(book.getId(), new IndexedBook(title, author));
+    }
+
+    private String addWithinBudget(SuggestionTrie trie, String text) {
+        if (text == null) {
+            return null;
+        }
+        if (trie.add(text, maxNodes - titles.getNodeCount() - authors.getNodeCount())) {
+            return text;
+        }
+        droppedSuggestions++;
+        return null;
+    }
+
+    private void remove(Long bookId) {
+        IndexedBook indexedBook = indexedBooks.remove(bookId);
+        if (indexedBook == null) {
+            return;
+        }
+        if (indexedBook.title != null) {
+            titles.remove(indexedBook.title);
+        }
+        if (indexedBook.author != null) {
+            authors.remove(indexedBook.author);
+        }
+    }
+
+    private static BookSuggestion toBookSuggestion(Suggestion suggestion, Type type) {
+        return new BookSuggestion(suggestion.getText(), type, suggestion.getWeight());
+    }
+
+    /**
+     * The title and author added for a book, null if they were dropped
+     */
+    private static final class IndexedBook {
+
+        private final String title;
+        private final String author;
+
+        private IndexedBook(String title, String author) {
+            this.title = title;
+            this.author = author;
+        }
+    }
+}
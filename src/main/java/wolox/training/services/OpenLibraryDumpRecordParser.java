@@ -0,0 +1,148 @@
+package wolox.training.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import wolox.training.models.BookDTO;
+
+/**
+ * Streaming parser of the edition records of an OpenLibrary dump. A record is a JSON object per line, optionally
+ * preceded by the tab separated type, key, revision and date columns of the official dumps
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+class OpenLibraryDumpRecordParser {
+
+    static final String ISBN_10_ATTRIBUTE = "isbn_10";
+    static final String ISBN_13_ATTRIBUTE = "isbn_13";
+    static final String BY_STATEMENT_ATTRIBUTE = "by_statement";
+
+    private static final Pattern YEAR = Pattern.compile("\\b(\\d{4})\\b");
+
+    private final JsonFactory jsonFactory;
+
+    /**
+     * @param jsonFactory factory shared by all the parsings, it is thread safe
+     */
+    OpenLibraryDumpRecordParser(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * Parse an edition record. The ISBN 13 is preferred over the ISBN 10, the first publisher and author are kept,
+     * the author falls back to the by statement when the authors are only references, and the publish date is
+     * reduced to its year
+     *
+     * @param line a dump line, must not be null
+     * @return the edition info, it is not validated
+     * @throws IOException if the record is not valid JSON
+     */
+    BookDTO parse(String line) throws IOException {
+        BookDTO bookDTO = new BookDTO();
+        String isbn10 = null;
+        String isbn13 = null;
+        String byStatement = null;
+
+        try (JsonParser parser = jsonFactory.createParser(line.substring(line.lastIndexOf('\t') + 1))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return bookDTO;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+
+                switch (field) {
+                    case OpenLibraryResponseParser.TITLE_ATTRIBUTE:
+                        bookDTO.setTitle(scalarValue(parser));
+                        break;
+                    case OpenLibraryResponseParser.SUBTITLE_ATTRIBUTE:
+                        bookDTO.setSubtitle(scalarValue(parser));
+                        break;
+                    case OpenLibraryResponseParser.PUBLISHED_DATE_ATTRIBUTE:
+                        bookDTO.setPublishDate(year(scalarValue(parser)));
+                        break;
+                    case OpenLibraryResponseParser.PAGES_NUMBER_ATTRIBUTE:
+                        bookDTO.setPageNumber(scalarValue(parser));
+                        break;
+                    case OpenLibraryResponseParser.PUBLISHERS_ATTRIBUTE:
+                        bookDTO.setPublisher(firstValue(parser));
+                        break;
+                    case OpenLibraryResponseParser.AUTHORS_ATTRIBUTE:
+                        bookDTO.setAuthor(firstValue(parser));
+                        break;
+                    case ISBN_10_ATTRIBUTE:
+                        isbn10 = firstValue(parser);
+                        break;
+                    case ISBN_13_ATTRIBUTE:
+                        isbn13 = firstValue(parser);
+                        break;
+                    case BY_STATEMENT_ATTRIBUTE:
+                        byStatement = scalarValue(parser);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+
+        bookDTO.setIsbn(isbn13 == null ? isbn10 : isbn13);
+        if (bookDTO.getAuthor() == null) {
+            bookDTO.setAuthor(byStatement);
+        }
+        return bookDTO;
+    }
+
+    private static String year(String publishDate) {
+        if (publishDate == null) {
+            return null;
+        }
+        Matcher matcher = YEAR.matcher(publishDate);
+        return matcher.find() ? matcher.group(1) : publishDate;
+    }
+
+    /**
+     * @return the text of the scalar the parser is at, or null if it is an object or an array, which are skipped
+     */
+    private static String scalarValue(JsonParser parser) throws IOException {
+        String value = parser.getValueAsString();
+        parser.skipChildren();
+        return value;
+    }
+
+    /**
+     * @return the first element of the array the parser is at, when it is a string, or its name, when it is an
+     * object. Null if there is none
+     */
+    private static String firstValue(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+
+        String value = null;
+        boolean first = true;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (first && parser.currentToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    if (OpenLibraryResponseParser.NAME_ATTRIBUTE.equals(field)) {
+                        value = parser.getValueAsString();
+                    }
+                    parser.skipChildren();
+                }
+            } else if (first) {
+                value = scalarValue(parser);
+            } else {
+                parser.skipChildren();
+            }
+            first = false;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,146 @@
+package wolox.training.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import wolox.training.models.BookDTO;
+
+/**
+ * Streaming parser of the OpenLibrary books API responses. It walks the tokens once and only keeps the fields of
+ * BookDTO, the rest of the response is skipped without being materialized
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+public class OpenLibraryResponseParser {
+
+    public static final String ISBN_PREFIX = "ISBN:";
+    public static final String AUTHORS_ATTRIBUTE = "authors";
+    public static final String NAME_ATTRIBUTE = "name";
+    public static final String PAGES_NUMBER_ATTRIBUTE = "number_of_pages";
+    public static final String PUBLISHED_DATE_ATTRIBUTE = "publish_date";
+    public static final String PUBLISHERS_ATTRIBUTE = "publishers";
+    public static final String SUBTITLE_ATTRIBUTE = "subtitle";
+    public static final String TITLE_ATTRIBUTE = "title";
+
+    private final JsonFactory jsonFactory;
+
+    /**
+     * @param jsonFactory factory shared by all the parsings, it is thread safe
+     */
+    public OpenLibraryResponseParser(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * Parse a response of the books API with the data format
+     *
+     * @param body the response body, it is closed when it is parsed
+     * @return the found books by ISBN, the ISBNs without data are not included
+     * @throws IOException if the body can't be read or it is not valid JSON
+     */
+    public Map<String, BookDTO> parse(InputStream body) throws IOException {
+        Map<String, BookDTO> books = new HashMap<>();
+
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return books;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String key = parser.getCurrentName();
+                if (parser.nextToken() == JsonToken.START_OBJECT && key.startsWith(ISBN_PREFIX)) {
+                    String isbn = key.substring(ISBN_PREFIX.length());
+                    BookDTO bookDTO = parseBook(parser, isbn);
+                    if (bookDTO != null) {
+                        books.put(isbn, bookDTO);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        return books;
+    }
+
+    /**
+     * @return the book of the object the parser is at, or null if the object is empty
+     */
+    private BookDTO parseBook(JsonParser parser, String isbn) throws IOException {
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setIsbn(isbn);
+        boolean empty = true;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            empty = false;
+
+            switch (field) {
+                case TITLE_ATTRIBUTE:
+                    bookDTO.setTitle(scalarValue(parser));
+                    break;
+                case SUBTITLE_ATTRIBUTE:
+                    bookDTO.setSubtitle(scalarValue(parser));
+                    break;
+                case PUBLISHED_DATE_ATTRIBUTE:
+                    bookDTO.setPublishDate(scalarValue(parser));
+                    break;
+                case PAGES_NUMBER_ATTRIBUTE:
+                    bookDTO.setPageNumber(scalarValue(parser));
+                    break;
+                case PUBLISHERS_ATTRIBUTE:
+                    bookDTO.setPublisher(firstName(parser));
+                    break;
+                case AUTHORS_ATTRIBUTE:
+                    bookDTO.setAuthor(firstName(parser));
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        return empty ? null : bookDTO;
+    }
+
+    /**
+     * @return the text of the scalar the parser is at, or null if it is an object or an array, which are skipped
+     */
+    private static String scalarValue(JsonParser parser) throws IOException {
+        String value = parser.getValueAsString();
+        parser.skipChildren();
+        return value;
+    }
+
+    /**
+     * @return the name of the first element of the array of named objects the parser is at, or null if there is none
+     */
+    private static String firstName(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+
+        String name = null;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (name != null || parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if (name == null && NAME_ATTRIBUTE.equals(field)) {
+                    name = parser.getValueAsString();
+                }
+                parser.skipChildren();
+            }
+        }
+        return name;
+    }
+}
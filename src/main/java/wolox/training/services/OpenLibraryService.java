@@ -1,16 +1,51 @@
 package wolox.training.services;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.util.EntityUtils;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 import wolox.training.exceptions.BookNotFoundException;
+import wolox.training.exceptions.OpenLibraryUnavailableException;
 import wolox.training.models.BookDTO;
+import wolox.training.utils.CircuitBreaker;
+import wolox.training.utils.CircuitBreaker.State;
+import wolox.training.utils.CompletableFutures;
 import wolox.training.utils.ErrorConstants;
 
 @Service
@@ -18,50 +53,454 @@ public class OpenLibraryService {
 
     public static final String BOOKS_URI_PATH = "books";
     public static final String ISBN_QUERY_PARAM = "bibkeys";
-    public static final String AUTHORS_ATTRIBUTE = "authors";
-    public static final String PAGES_NUMBER_ATTRIBUTE = "number_of_pages";
-    public static final String PUBLISHED_DATE_ATTRIBUTE = "publish_date";
-    public static final String PUBLISHERS_ATTRIBUTE = "publishers";
-    public static final String SUBTITLE_ATTRIBUTE = "subtitle";
-    public static final String TITLE_ATTRIBUTE = "title";
 
-    private final RestTemplate restTemplate;
+    private final OpenLibraryResponseParser responseParser;
+    private final CloseableHttpAsyncClient httpClient;
+    private final CircuitBreaker circuitBreaker;
+    private final AtomicLong circuitOpenRejectedCalls = new AtomicLong();
 
-    public OpenLibraryService(RestTemplateBuilder builder) {
-        this.restTemplate = builder.build();
+    /**
+     * Duration of the requests that reached OpenLibrary, by outcome
+     */
+    private final Timer successfulRequests;
+    private final Timer failedRequests;
+
+    /**
+     * Bulkhead that bounds the concurrent calls to OpenLibrary, the calls above the limit fail fast instead of
+     * queueing. It never allows more calls than pooled connections, so no call waits for a connection
+     */
+    private final Semaphore bulkhead;
+    private final AtomicLong bulkheadRejectedCalls = new AtomicLong();
+
+    /**
+     * Maximum number of chunk requests of one batch lookup in flight, so its chunks never wait longer than the lease
+     * timeout for a pooled connection
+     */
+    private final int maxChunksInFlight;
+
+    /**
+     * Read-through cache by ISBN. Not found books are cached as Optional#empty() so repeated misses skip the network.
+     * Entries older than the TTL are refreshed, but they are kept until the stale TTL to answer while OpenLibrary is
+     * unavailable
+     */
+    private final Cache<String, CachedBookInfo> cache;
+    private final AtomicLong staleResponses = new AtomicLong();
+
+    /**
+     * Lookups answered by a fresh cached info and lookups that needed a remote request. The Guava hit count can't be
+     * used, because the stale entries are still present in the cache
+     */
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final long cacheTtlNanos;
+
+    /**
+     * Running lookups by ISBN, concurrent lookups of the same ISBN share one remote request
+     */
+    private final ConcurrentMap<String, CompletableFuture<Optional<BookDTO>>> inFlightLookups =
+        new ConcurrentHashMap<>();
+
+    public OpenLibraryService(ObjectMapper objectMapper, CircuitBreaker openLibraryCircuitBreaker,
+        MeterRegistry meterRegistry,
+        @Value("${openLibrary.cache.maxSize}") long cacheMaxSize,
+        @Value("${openLibrary.cache.ttlSeconds}") long cacheTtlSeconds,
+        @Value("${openLibrary.cache.staleTtlSeconds}") long cacheStaleTtlSeconds,
+        @Value("${openLibrary.http.maxConnections}") int maxConnections,
+        @Value("${openLibrary.bulkhead.maxConcurrentCalls}") int maxConcurrentCalls,
+        @Value("${openLibrary.http.connectTimeoutMillis}") int connectTimeoutMillis,
+        @Value("${openLibrary.http.readTimeoutMillis}") int readTimeoutMillis,
+        @Value("${openLibrary.http.leaseTimeoutMillis}") int leaseTimeoutMillis) {
+
+        this.responseParser = new OpenLibraryResponseParser(objectMapper.getFactory());
+        this.circuitBreaker = openLibraryCircuitBreaker;
+        this.bulkhead = new Semaphore(Math.min(maxConcurrentCalls, maxConnections));
+        this.maxChunksInFlight = maxConnections;
+        this.successfulRequests = requestTimer(meterRegistry, "success");
+        this.failedRequests = requestTimer(meterRegistry, "error");
+        this.cacheTtlNanos = TimeUnit.SECONDS.toNanos(cacheTtlSeconds);
+        this.cache = CacheBuilder.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .expireAfterWrite(Math.max(cacheTtlSeconds, cacheStaleTtlSeconds), TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout(connectTimeoutMillis)
+            .setSocketTimeout(readTimeoutMillis)
+            .setConnectionRequestTimeout(leaseTimeoutMillis)
+            .build();
+        this.httpClient = HttpAsyncClients.custom()
+            .setMaxConnTotal(maxConnections)
+            .setMaxConnPerRoute(maxConnections)
+            .setDefaultRequestConfig(requestConfig)
+            .build();
+        this.httpClient.start();
     }
 
     @Value("${openLibraryUrl}")
     private String openLibraryUrl;
+    @Value("${openLibrary.batchSize}")
+    private int batchSize;
 
+    /**
+     * Find the book info by its ISBN, looking first in the cache. The calling thread waits for the remote request.
+     * While OpenLibrary is unavailable, the stale cached info is returned if there is one
+     *
+     * @param isbn must not be null
+     * @return the book info
+     * @throws BookNotFoundException           if OpenLibrary does not have the book
+     * @throws OpenLibraryUnavailableException if OpenLibrary fails, times out or there are too many pending requests
+     */
     public BookDTO bookInfo(String isbn) {
-        final String isbnQueryValue = "ISBN:" + isbn;
-        URI uri = UriComponentsBuilder
+        return CompletableFutures.join(bookInfoAsync(isbn));
+    }
+
+    /**
+     * Find the book info by its ISBN, looking first in the cache. The remote request does not block the calling
+     * thread. While OpenLibrary is unavailable, the stale cached info is returned if there is one
+     *
+     * @param isbn must not be null
+     * @return a future completed with the book info, or with BookNotFoundException if OpenLibrary does not have the
+     * book, or with OpenLibraryUnavailableException if OpenLibrary fails, times out or there are too many pending
+     * requests
+     */
+    public CompletableFuture<BookDTO> bookInfoAsync(String isbn) {
+        CachedBookInfo cachedBookInfo = cache.getIfPresent(isbn);
+        CompletableFuture<Optional<BookDTO>> lookup = isFreshHit(cachedBookInfo) ?
+            CompletableFuture.completedFuture(cachedBookInfo.bookDTO) : lookup(isbn);
+
+        return lookup.thenApply(bookDTO -> bookDTO.orElseThrow(() ->
+            new BookNotFoundException(String.format(ErrorConstants.BOOK_ISBN_NOT_FOUND, isbn))));
+    }
+
+    /**
+     * @return number of lookups answered by a fresh cached info
+     */
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * @return number of lookups that were not cached or whose cached info was stale
+     */
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    /**
+     * @return number of cached infos evicted because of the cache size or the stale TTL
+     */
+    public long getCacheEvictions() {
+        return cache.stats().evictionCount();
+    }
+
+    /**
+     * Remove all the cached lookups
+     */
+    public void clearCache() {
+        cache.invalidateAll();
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * @return number of calls that can still be made concurrently to OpenLibrary
+     */
+    public int getBulkheadAvailableCalls() {
+        return bulkhead.availablePermits();
+    }
+
+    /**
+     * @return number of calls rejected because the concurrent calls limit was reached
+     */
+    public long getBulkheadRejectedCalls() {
+        return bulkheadRejectedCalls.get();
+    }
+
+    /**
+     * @return number of calls rejected because the circuit breaker was open
+     */
+    public long getCircuitOpenRejectedCalls() {
+        return circuitOpenRejectedCalls.get();
+    }
+
+    /**
+     * @return number of stale cached book infos returned while OpenLibrary was unavailable
+     */
+    public long getStaleResponses() {
+        return staleResponses.get();
+    }
+
+    /**
+     * Find the book info of several ISBNs. The ISBNs that are not cached are requested in chunks of several bibkeys
+     * per request. At most as many chunks as pooled connections are requested at the same time, the next chunk is sent
+     * when one of them completes, and a chunk waits for a bulkhead permit instead of failing fast. While the circuit
+     * breaker is half open the chunks are sent one at a time. While OpenLibrary is unavailable, a chunk is answered
+     * with stale cached infos if all its ISBNs have one
+     *
+     * @param isbns must not be null
+     * @return the found books by ISBN, the ISBNs that OpenLibrary does not have are not included
+     * @throws OpenLibraryUnavailableException if a chunk request fails, times out or the circuit breaker is open
+     */
+    public Map<String, BookDTO> booksInfo(Collection<String> isbns) {
+        Map<String, BookDTO> books = new ConcurrentHashMap<>();
+        List<String> notCachedIsbns = new ArrayList<>();
+
+        for (String isbn : new LinkedHashSet<>(isbns)) {
+            CachedBookInfo cachedBookInfo = cache.getIfPresent(isbn);
+            if (isFreshHit(cachedBookInfo)) {
+                cachedBookInfo.bookDTO.ifPresent(bookDTO -> books.put(isbn, bookDTO));
+            } else {
+                notCachedIsbns.add(isbn);
+            }
+        }
+
+        Semaphore chunksInFlight = new Semaphore(maxChunksInFlight);
+        AtomicBoolean chunkFailed = new AtomicBoolean();
+        List<CompletableFuture<?>> chunkRequests = new ArrayList<>();
+        for (List<String> chunk : Lists.partition(notCachedIsbns, batchSize)) {
+            acquire(chunksInFlight, 1);
+            if (chunkFailed.get()) {
+                chunksInFlight.release();
+                break;
+            }
+            if (circuitBreaker.getState() == State.HALF_OPEN) {
+                // Only a few trial calls are let through, so the chunk is sent once the previous ones completed
+                acquire(chunksInFlight, maxChunksInFlight - 1);
+                chunksInFlight.release(maxChunksInFlight - 1);
+            }
+            chunkRequests.add(fetch(booksUri(chunk), true).handle((response, error) -> {
+                Map<String, Optional<BookDTO>> chunkBooks = new HashMap<>();
+                for (String isbn : chunk) {
+                    if (error == null) {
+                        Optional<BookDTO> bookDTO = toBookDTO(isbn, response);
+                        cache.put(isbn, new CachedBookInfo(bookDTO));
+                        chunkBooks.put(isbn, bookDTO);
+                    } else {
+                        CachedBookInfo staleBookInfo = staleBookInfo(isbn, error);
+                        if (staleBookInfo == null) {
+                            throw new CompletionException(CompletableFutures.unwrap(error));
+                        }
+                        chunkBooks.put(isbn, staleBookInfo.bookDTO);
+                    }
+                }
+                if (error != null) {
+                    staleResponses.addAndGet(chunk.size());
+                }
+                chunkBooks.forEach((isbn, bookDTO) -> bookDTO.ifPresent(dto -> books.put(isbn, dto)));
+                return null;
+            }).whenComplete((result, error) -> {
+                if (error != null) {
+                    chunkFailed.set(true);
+                }
+                chunksInFlight.release();
+            }));
+        }
+        CompletableFutures.join(CompletableFuture.allOf(chunkRequests.toArray(new CompletableFuture[0])));
+
+        return new HashMap<>(books);
+    }
+
+    /**
+     * Close the pooled connections
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    private CompletableFuture<Optional<BookDTO>> lookup(String isbn) {
+        CompletableFuture<Optional<BookDTO>> lookup = new CompletableFuture<>();
+        CompletableFuture<Optional<BookDTO>> inFlightLookup = inFlightLookups.putIfAbsent(isbn, lookup);
+
+        if (inFlightLookup != null) {
+            return inFlightLookup;
+        }
+
+        fetch(booksUri(Collections.singletonList(isbn)), false)
+            .thenApply(response -> toBookDTO(isbn, response))
+            .whenComplete((bookDTO, error) -> {
+                CachedBookInfo staleBookInfo = error == null ? null : staleBookInfo(isbn, error);
+                if (error == null) {
+                    cache.put(isbn, new CachedBookInfo(bookDTO));
+                }
+                inFlightLookups.remove(isbn, lookup);
+                if (error == null) {
+                    lookup.complete(bookDTO);
+                } else if (staleBookInfo != null) {
+                    staleResponses.incrementAndGet();
+                    lookup.complete(staleBookInfo.bookDTO);
+                } else {
+                    lookup.completeExceptionally(CompletableFutures.unwrap(error));
+                }
+            });
+        return lookup;
+    }
+
+    private boolean isFresh(CachedBookInfo cachedBookInfo) {
+        return cachedBookInfo != null && System.nanoTime() - cachedBookInfo.cachedAt < cacheTtlNanos;
+    }
+
+    /**
+     * Same as {@link #isFresh(CachedBookInfo)}, counting the lookup as a cache hit or miss
+     */
+    private boolean isFreshHit(CachedBookInfo cachedBookInfo) {
+        boolean fresh = isFresh(cachedBookInfo);
+        (fresh ? cacheHits : cacheMisses).incrementAndGet();
+        return fresh;
+    }
+
+    /**
+     * @return the cached info that can be returned instead of failing with the given error, or null if there is none
+     */
+    private CachedBookInfo staleBookInfo(String isbn, Throwable error) {
+        if (!(CompletableFutures.unwrap(error) instanceof OpenLibraryUnavailableException)) {
+            return null;
+        }
+        return cache.asMap().get(isbn);
+    }
+
+    /**
+     * Request OpenLibrary through the bulkhead and the circuit breaker
+     *
+     * @param waitForPermit true to wait until a bulkhead permit is released, false to fail fast when there is none
+     */
+    private CompletableFuture<Map<String, BookDTO>> fetch(URI uri, boolean waitForPermit) {
+        if (waitForPermit) {
+            acquire(bulkhead, 1);
+        } else if (!bulkhead.tryAcquire()) {
+            bulkheadRejectedCalls.incrementAndGet();
+            return CompletableFutures.failed(
+                new OpenLibraryUnavailableException(ErrorConstants.OPEN_LIBRARY_TOO_MANY_REQUESTS));
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            bulkhead.release();
+            circuitOpenRejectedCalls.incrementAndGet();
+            return CompletableFutures.failed(
+                new OpenLibraryUnavailableException(ErrorConstants.OPEN_LIBRARY_CIRCUIT_OPEN));
+        }
+        long startTime = System.nanoTime();
+
+        CompletableFuture<Map<String, BookDTO>> response = new CompletableFuture<>();
+        try {
+            httpClient.execute(new HttpGet(uri), new FutureCallback<HttpResponse>() {
+                @Override
+                public void completed(HttpResponse httpResponse) {
+                    try {
+                        response.complete(readBody(httpResponse));
+                    } catch (IOException | RuntimeException e) {
+                        failed(e);
+                    }
+                }
+
+                @Override
+                public void failed(Exception e) {
+                    response.completeExceptionally(e instanceof OpenLibraryUnavailableException ? e :
+                        new OpenLibraryUnavailableException(
+                            String.format(ErrorConstants.OPEN_LIBRARY_UNAVAILABLE, e.getMessage()), e));
+                }
+
+                @Override
+                public void cancelled() {
+                    response.cancel(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            response.completeExceptionally(new OpenLibraryUnavailableException(
+                String.format(ErrorConstants.OPEN_LIBRARY_UNAVAILABLE, e.getMessage()), e));
+        }
+        return response.whenComplete((body, error) -> {
+            long duration = System.nanoTime() - startTime;
+            if (error == null) {
+                circuitBreaker.onSuccess(duration);
+                successfulRequests.record(duration, TimeUnit.NANOSECONDS);
+            } else {
+                if (isRemoteFailure(error)) {
+                    circuitBreaker.onError(duration);
+                } else {
+                    circuitBreaker.releasePermission();
+                }
+                failedRequests.record(duration, TimeUnit.NANOSECONDS);
+            }
+            bulkhead.release();
+        });
+    }
+
+    /**
+     * @return true if OpenLibrary caused the failure: an I/O error or timeout of the request, or a server error status.
+     * Local failures, like waiting too long for a pooled connection, must not open the circuit
+     */
+    private static boolean isRemoteFailure(Throwable error) {
+        Throwable cause = CompletableFutures.unwrap(error);
+        if (cause instanceof OpenLibraryUnavailableException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof HttpResponseException) {
+            return ((HttpResponseException) cause).getStatusCode() >= HttpStatus.SC_INTERNAL_SERVER_ERROR;
+        }
+        return cause instanceof IOException && !(cause instanceof ConnectionPoolTimeoutException);
+    }
+
+    /**
+     * Wait for the permits of the semaphore
+     *
+     * @throws OpenLibraryUnavailableException if the thread is interrupted while waiting
+     */
+    private static void acquire(Semaphore semaphore, int permits) {
+        try {
+            semaphore.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OpenLibraryUnavailableException(ErrorConstants.OPEN_LIBRARY_TOO_MANY_REQUESTS);
+        }
+    }
+
+    private Map<String, BookDTO> readBody(HttpResponse httpResponse) throws IOException {
+        int statusCode = httpResponse.getStatusLine().getStatusCode();
+        if (statusCode < HttpStatus.SC_OK || statusCode >= HttpStatus.SC_MULTIPLE_CHOICES) {
+            EntityUtils.consumeQuietly(httpResponse.getEntity());
+            throw new OpenLibraryUnavailableException(
+                String.format(ErrorConstants.OPEN_LIBRARY_UNAVAILABLE, httpResponse.getStatusLine()),
+                new HttpResponseException(statusCode, httpResponse.getStatusLine().getReasonPhrase()));
+        }
+        HttpEntity entity = httpResponse.getEntity();
+        return entity == null ? Collections.emptyMap() : responseParser.parse(entity.getContent());
+    }
+
+    private static Timer requestTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("openlibrary.requests")
+            .description("Duration of the requests to OpenLibrary")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private URI booksUri(List<String> isbns) {
+        return UriComponentsBuilder
             .fromHttpUrl(openLibraryUrl)
             .path(BOOKS_URI_PATH)
-            .queryParam(ISBN_QUERY_PARAM, isbnQueryValue)
+            .queryParam(ISBN_QUERY_PARAM, isbns.stream().map(isbn -> OpenLibraryResponseParser.ISBN_PREFIX + isbn)
+                .collect(Collectors.joining(",")))
             .queryParam("format", "json")
             .queryParam("jscmd", "data")
             .build().toUri();
+    }
 
-        ObjectNode objectNode = restTemplate.getForObject(uri, ObjectNode.class);
-        objectNode = objectNode == null ? null : (ObjectNode) objectNode.get(isbnQueryValue);
+    private Optional<BookDTO> toBookDTO(String isbn, Map<String, BookDTO> response) {
+        return Optional.ofNullable(response.get(isbn));
+    }
 
-        if (objectNode != null && !objectNode.isEmpty()) {
-            ObjectMapper mapper = new ObjectMapper();
+    /**
+     * Book info lookup result and the time it was cached
+     */
+    private static final class CachedBookInfo {
 
-            BookDTO bookDTO = new BookDTO();
-            bookDTO.setIsbn(isbn);
-            bookDTO.setAuthors(mapper.convertValue(objectNode.get(AUTHORS_ATTRIBUTE), List.class));
-            bookDTO.setTitle(mapper.convertValue(objectNode.get(TITLE_ATTRIBUTE), String.class));
-            bookDTO.setSubtitle(mapper.convertValue(objectNode.get(SUBTITLE_ATTRIBUTE), String.class));
-            bookDTO.setPublishDate(mapper.convertValue(objectNode.get(PUBLISHED_DATE_ATTRIBUTE), String.class));
-            bookDTO.setPublishers(mapper.convertValue(objectNode.get(PUBLISHERS_ATTRIBUTE), List.class));
-            bookDTO.setPageNumber(mapper.convertValue(objectNode.get(PAGES_NUMBER_ATTRIBUTE), String.class));
+        private final Optional<BookDTO> bookDTO;
+        private final long cachedAt = System.nanoTime();
 
-            return bookDTO;
-        } else {
-            throw new BookNotFoundException(String.format(ErrorConstants.BOOK_ISBN_NOT_FOUND, isbn));
+        private CachedBookInfo(Optional<BookDTO> bookDTO) {
+            this.bookDTO = bookDTO;
         }
     }
 }
@@ -0,0 +1,37 @@
+package wolox.training.services;
+
+import java.util.regex.Pattern;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import wolox.training.models.User;
+
+/**
+ * Service to hash the user passwords with the shared password encoder
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class PasswordService {
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\A\\$2([ayb])?\\$\\d\\d\\$[./0-9A-Za-z]{53}");
+
+    private final PasswordEncoder encoder;
+
+    public PasswordService(PasswordEncoder encoder) {
+        this.encoder = encoder;
+    }
+
+    /**
+     * Hash the user password before persisting it. Passwords that are already a bcrypt hash are kept as they are
+     *
+     * @param user must not be null
+     */
+    public void encodePassword(User user) {
+        String password = user.getPassword();
+        if (password != null && !BCRYPT_HASH.matcher(password).matches()) {
+            user.setPassword(encoder.encode(password));
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package wolox.training.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Prefix tree of weighted suggestions. Every node keeps its best suggestions sorted, so finding the top suggestions
+ * of a prefix only walks the prefix characters. It is not thread safe
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+class SuggestionTrie {
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Suggestion[] NO_SUGGESTIONS = new Suggestion[0];
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    private static final Comparator<Suggestion> RANKING = Comparator.comparingInt(Suggestion::getWeight).reversed()
+        .thenComparing(Suggestion::getKey);
+
+    private final int maxSuggestions;
+    private Node root = new Node();
+    private int nodeCount = 1;
+
+    /**
+     * @param maxSuggestions number of suggestions kept per prefix
+     */
+    SuggestionTrie(int maxSuggestions) {
+        this.maxSuggestions = maxSuggestions;
+    }
+
+    /**
+     * Add a suggestion or increase its weight by one
+     *
+     * @param text     must not be null
+     * @param maxNodes number of nodes that can be created to store it
+     * @return false if the suggestion needs more nodes than the given ones, then nothing is added
+     */
+    boolean add(String text, int maxNodes) {
+        String key = normalize(text);
+        if (key.isEmpty()) {
+            return true;
+        }
+
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        int depth = 0;
+        while (depth < key.length() && path[depth].child(key.charAt(depth)) != null) {
+            path[depth + 1] = path[depth].child(key.charAt(depth));
+            depth++;
+        }
+        if (key.length() - depth > maxNodes) {
+            return false;
+        }
+        for (; depth < key.length(); depth++) {
+            path[depth + 1] = path[depth].addChild(key.charAt(depth));
+            nodeCount++;
+        }
+
+        Node node = path[key.length()];
+        if (node.suggestion == null) {
+            node.suggestion = new Suggestion(key, text);
+        }
+        node.suggestion.weight++;
+        updatePath(path, key);
+        return true;
+    }
+
+    /**
+     * Decrease the weight of a suggestion by one, it is removed when the weight is zero
+     *
+     * @param text must not be null
+     */
+    void remove(String text) {
+        String key = normalize(text);
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int depth = 0; depth < key.length(); depth++) {
+            path[depth + 1] = path[depth].child(key.charAt(depth));
+            if (path[depth + 1] == null) {
+                return;
+            }
+        }
+
+        Node node = path[key.length()];
+        if (node.suggestion == null) {
+            return;
+        }
+        if (--node.suggestion.weight == 0) {
+            node.suggestion = null;
+        }
+        updatePath(path, key);
+    }
+
+    /**
+     * Find the best suggestions starting with a prefix, the heaviest first
+     *
+     * @param prefix must not be null
+     * @return at most the configured number of suggestions
+     */
+    List<Suggestion> top(String prefix) {
+        String key = normalize(prefix);
+        Node node = root;
+        for (int depth = 0; depth < key.length() && node != null; depth++) {
+            node = node.child(key.charAt(depth));
+        }
+        return node == null ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(node.top));
+    }
+
+    void clear() {
+        root = new Node();
+        nodeCount = 1;
+    }
+
+    int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Normalize a text to compare it ignoring case, diacritics and repeated spaces
+     *
+     * @param text must not be null
+     * @return the normalized text
+     */
+    static String normalize(String text) {
+        String withoutDiacritics = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(withoutDiacritics.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Recompute the best suggestions of the nodes of a path from the deepest one, removing the nodes left empty
+     */
+    private void updatePath(Node[] path, String key) {
+        for (int depth = key.length(); depth >= 0; depth--) {
+            Node node = path[depth];
+            if (depth > 0 && node.suggestion == null && node.keys.length == 0) {
+                path[depth - 1].removeChild(key.charAt(depth - 1));
+                nodeCount--;
+            } else {
+                node.top = bestOf(node);
+            }
+        }
+    }
+
+    private Suggestion[] bestOf(Node node) {
+        List<Suggestion> candidates = new ArrayList<>();
+        if (node.suggestion != null) {
+            candidates.add(node.suggestion);
+        }
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        candidates.sort(RANKING);
+        return candidates.subList(0, Math.min(maxSuggestions, candidates.size())).toArray(NO_SUGGESTIONS);
+    }
+
+    /**
+     * A suggested text and the number of times it was added
+     */
+    static final class Suggestion {
+
+        private final String key;
+        private final String text;
+        private int weight;
+
+        private Suggestion(String key, String text) {
+            this.key = key;
+            this.text = text;
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        String getText() {
+            return text;
+        }
+
+        int getWeight() {
+            return weight;
+        }
+    }
+
+    /**
+     * Children are kept in two arrays sorted by character, which takes less memory than a map per node
+     */
+    private static final class Node {
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private Suggestion suggestion;
+        private Suggestion[] top = NO_SUGGESTIONS;
+
+        private Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index < 0 ? null : children[index];
+        }
+
+        private Node addChild(char c) {
+            int index = -Arrays.binarySearch(keys, c) - 1;
+            Node child = new Node();
+
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newKeys[index] = c;
+            newChildren[index] = child;
+            System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+        private void removeChild(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package wolox.training.services;
+
+import static wolox.training.utils.ErrorConstants.USER_NOT_FOUND;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import wolox.training.exceptions.UserNotFoundException;
+import wolox.training.models.BookOwnershipResult;
+import wolox.training.models.BookOwnershipResult.Status;
+import wolox.training.models.BulkBooksRequest;
+import wolox.training.models.BulkBooksRequest.Operation;
+import wolox.training.repositories.BookRepository;
+import wolox.training.repositories.UserBookRepository;
+import wolox.training.repositories.UserRepository;
+
+/**
+ * Service to add or remove several books from a user's collection at once
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class UserBookService {
+
+    private final UserRepository userRepository;
+    private final BookRepository bookRepository;
+    private final UserBookRepository userBookRepository;
+
+    public UserBookService(UserRepository userRepository, BookRepository bookRepository,
+        UserBookRepository userBookRepository) {
+        this.userRepository = userRepository;
+        this.bookRepository = bookRepository;
+        this.userBookRepository = userBookRepository;
+    }
+
+    /**
+     * Add or remove the given books from the user's collection. The existing books are found with a single query and
+     * the changes are applied with a single statement, in one transaction
+     *
+     * @param userId  must not be null
+     * @param request must not be null
+     * @return the result of every distinct book id, in the same order they were given
+     * @throws UserNotFoundException if the user does not exist
+     */
+    @Transactional
+    public List<BookOwnershipResult> updateBooks(Long userId, BulkBooksRequest request) {
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException(String.format(USER_NOT_FOUND, userId));
+        }
+
+        Set<Long> bookIds = new LinkedHashSet<>(request.getBookIds());
+        Set<Long> existingIds = bookRepository.findIdsByIdIn(bookIds);
+        boolean add = request.getOperation() == Operation.ADD;
+        Set<Long> changedIds = existingIds.isEmpty() ? new HashSet<>() : new HashSet<>(add
+            ? userBookRepository.addBooks(userId, existingIds)
+            : userBookRepository.removeBooks(userId, existingIds));
+
+        return bookIds.stream()
+            .map(bookId -> new BookOwnershipResult(bookId, status(bookId, add, existingIds, changedIds)))
+            .collect(Collectors.toList());
+    }
+
+    private Status status(Long bookId, boolean add, Set<Long> existingIds, Set<Long> changedIds) {
+        if (!existingIds.contains(bookId)) {
+            return Status.NOT_FOUND;
+        } else if (changedIds.contains(bookId)) {
+            return add ? Status.ADDED : Status.REMOVED;
+        } else {
+            return add ? Status.ALREADY_OWNED : Status.NOT_OWNED;
+        }
+    }
+}
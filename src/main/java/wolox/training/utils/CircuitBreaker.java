@@ -0,0 +1,198 @@
+package wolox.training.utils;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import lombok.Builder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Circuit breaker over the outcomes of the last calls to a remote service. It opens when the rate of failed or slow
+ * calls reaches a threshold, so the next calls fail fast. After a while it lets a few trial calls through (half
+ * open) and closes again if all of them succeed
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+public class CircuitBreaker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreaker.class);
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int minimumCalls;
+    private final float failureRateThreshold;
+    private final float slowCallRateThreshold;
+    private final long slowCallDurationNanos;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier clock;
+    private final Map<State, AtomicLong> transitions = new EnumMap<>(State.class);
+
+    /**
+     * Outcome flags of the last calls, used as a ring buffer
+     */
+    private final byte[] window;
+    private int windowIndex;
+    private int windowCalls;
+    private int failedCalls;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    /**
+     * @param name                   name used in the logs
+     * @param windowSize             number of last calls whose outcome is kept
+     * @param minimumCalls           number of calls in the window needed before the rates are evaluated
+     * @param failureRateThreshold   percentage of failed calls that opens the circuit
+     * @param slowCallRateThreshold  percentage of slow calls that opens the circuit
+     * @param slowCallDurationMillis duration from which a call is slow
+     * @param openDurationMillis     time the circuit stays open before letting trial calls through
+     * @param halfOpenCalls          number of trial calls that must succeed to close the circuit
+     * @param clock                  nano time source, System#nanoTime if it is null
+     */
+    @Builder
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, float failureRateThreshold,
+        float slowCallRateThreshold, long slowCallDurationMillis, long openDurationMillis, int halfOpenCalls,
+        LongSupplier clock) {
+
+        this.name = name;
+        this.window = new byte[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallDurationNanos = TimeUnit.MILLISECONDS.toNanos(slowCallDurationMillis);
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMillis);
+        this.halfOpenCalls = halfOpenCalls;
+        this.clock = clock == null ? System::nanoTime : clock;
+        for (State transitionState : State.values()) {
+            transitions.put(transitionState, new AtomicLong());
+        }
+    }
+
+    /**
+     * Ask permission to make a call. Every granted permission must be followed by onSuccess, onError or
+     * releasePermission
+     *
+     * @return false if the call must not be made
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openDurationNanos) {
+            transitionTo(State.HALF_OPEN);
+        }
+
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (halfOpenPermits < halfOpenCalls) {
+                    halfOpenPermits++;
+                    return true;
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Give back a permission whose call was not made
+     */
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+            halfOpenPermits--;
+        }
+    }
+
+    /**
+     * @param durationNanos duration of the successful call
+     */
+    public synchronized void onSuccess(long durationNanos) {
+        record(false, durationNanos);
+    }
+
+    /**
+     * @param durationNanos duration of the failed call
+     */
+    public synchronized void onError(long durationNanos) {
+        record(true, durationNanos);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @param to state reached by the transitions
+     * @return number of times the circuit changed to the given state
+     */
+    public long getTransitionCount(State to) {
+        return transitions.get(to).get();
+    }
+
+    /**
+     * Close the circuit and forget the recorded calls, the transition counters are kept
+     */
+    public synchronized void reset() {
+        state = State.CLOSED;
+        clearWindow();
+    }
+
+    private void record(boolean failed, long durationNanos) {
+        boolean slow = durationNanos >= slowCallDurationNanos;
+
+        if (state == State.HALF_OPEN) {
+            if (failed || slow) {
+                transitionTo(State.OPEN);
+            } else if (++halfOpenSuccesses >= halfOpenCalls) {
+                transitionTo(State.CLOSED);
+            }
+        } else if (state == State.CLOSED) {
+            if (windowCalls == window.length) {
+                failedCalls -= window[windowIndex] & FAILED;
+                slowCalls -= (window[windowIndex] & SLOW) >> 1;
+            } else {
+                windowCalls++;
+            }
+            window[windowIndex] = (byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0));
+            failedCalls += failed ? 1 : 0;
+            slowCalls += slow ? 1 : 0;
+            windowIndex = (windowIndex + 1) % window.length;
+
+            if (windowCalls >= minimumCalls && (failedCalls * 100f / windowCalls >= failureRateThreshold
+                || slowCalls * 100f / windowCalls >= slowCallRateThreshold)) {
+                transitionTo(State.OPEN);
+            }
+        }
+    }
+
+    private void transitionTo(State newState) {
+        State previousState = state;
+        state = newState;
+        openedAt = clock.getAsLong();
+        clearWindow();
+        transitions.get(newState).incrementAndGet();
+        LOGGER.warn("Circuit breaker {} changed from {} to {}", name, previousState, newState);
+    }
+
+    private void clearWindow() {
+        windowIndex = 0;
+        windowCalls = 0;
+        failedCalls = 0;
+        slowCalls = 0;
+        halfOpenPermits = 0;
+        halfOpenSuccesses = 0;
+    }
+}
@@ -0,0 +1,60 @@
+package wolox.training.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Helpers to wait for completable futures and get back the exceptions they were completed with
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+public final class CompletableFutures {
+
+    private CompletableFutures() {}
+
+    /**
+     * Wait for a future, rethrowing the runtime exception it failed with instead of a CompletionException
+     *
+     * @param future must not be null
+     * @param <T>    type of the result
+     * @return the result of the future
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @param throwable must not be null
+     * @return the exception wrapped by the CompletionException or ExecutionException layers of a failed stage
+     */
+    public static Throwable unwrap(Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+            && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    /**
+     * @param throwable must not be null
+     * @param <T>       type of the result
+     * @return a future already completed with the exception
+     */
+    public static <T> CompletableFuture<T> failed(Throwable throwable) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(throwable);
+        return future;
+    }
+}
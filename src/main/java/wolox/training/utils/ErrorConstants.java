@@ -15,6 +15,11 @@ public final class ErrorConstants {
     public static final String BOOK_BY_AUTHOR_NOT_FOUND = "Books by author %s not found";
     public static final String BOOK_ID_MISMATCH = "The book id does not correspond with the body data";
 
+    // OpenLibrary error messages
+    public static final String OPEN_LIBRARY_UNAVAILABLE = "OpenLibrary request failed: %s";
+    public static final String OPEN_LIBRARY_TOO_MANY_REQUESTS = "Too many pending OpenLibrary requests";
+    public static final String OPEN_LIBRARY_CIRCUIT_OPEN = "OpenLibrary requests are suspended after repeated failures";
+
     // Book preconditions error messages
     public static final String OBLIGATORY_AUTHOR_FIELD = "The author field is required";
     public static final String OBLIGATORY_IMAGE_FIELD = "The image field is required";
@@ -13,17 +13,21 @@ public final class SwaggerConstants {
     public static final String USER_CONTROLLER_FIND_ALL = "Find all users";
     public static final String USER_CONTROLLER_FIND_BY_ID = "Find user by its id";
     public static final String USER_CONTROLLER_FIND_ONE_BY_USERNAME = "find user by its username";
+    public static final String USER_CONTROLLER_SEARCH = "Search users by birthdate range and name";
     public static final String USER_CONTROLLER_CREATE = "Add a new user";
     public static final String USER_CONTROLLER_DELETE = "Remove an existing user";
     public static final String USER_CONTROLLER_UPDATE = "Update an existing user";
     public static final String USER_CONTROLLER_UPDATE_PASSWORD = "Update an existing user password";
     public static final String USER_CONTROLLER_ADD_BOOK = "Add a new book to user's collection";
     public static final String USER_CONTROLLER_REMOVE_BOOK = "Remove a book from user's collection";
+    public static final String USER_CONTROLLER_BULK_BOOKS = "Add or remove several books from user's collection";
     public static final String USER_CONTROLLER_AUTHENTICATED_USER = "Get current authenticated user";
+    public static final String USER_CONTROLLER_LOGIN = "Exchange basic credentials for a bearer token";
     // Api response
     public static final String RESPONSE_CODE_400 = "Malformed body request";
     public static final String RESPONSE_CODE_401 = "User not authenticated";
     public static final String RESPONSE_CODE_404 = "The resource is not found";
+    public static final String RESPONSE_CODE_409 = "The resource already exists";
     public static final String RESPONSE_CODE_500 = "An unexpected error happened";
     public static final String USER_CONTROLLER_FIND_ALL_200 = "Succesfully retrieved users";
     public static final String USER_CONTROLLER_FIND_200 = "Succesfully retrieved user";
@@ -33,6 +37,8 @@ public final class SwaggerConstants {
     public static final String USER_CONTROLLER_REMOVE_204 = "User succesfully removed";
     public static final String USER_CONTROLLER_ADD_BOOK_204 = "Book succesfully added";
     public static final String USER_CONTROLLER_REMOVE_BOOK_204 = "Book succesfully removed";
+    public static final String USER_CONTROLLER_BULK_BOOKS_200 = "Result of every book";
+    public static final String USER_CONTROLLER_LOGIN_200 = "Token succesfully issued";
 
     private SwaggerConstants() {}
 }
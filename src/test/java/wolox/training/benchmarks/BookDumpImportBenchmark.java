@@ -0,0 +1,79 @@
+package wolox.training.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import wolox.training.models.DumpImportProgress;
+import wolox.training.services.BookDumpImportService;
+
+/**
+ * Measure the ingestion rate of a synthetic gzip compressed dump of 200k edition records against the PostgreSQL
+ * database configured in the test application properties. It is excluded from the test task, run it with
+ * {@code ./gradlew benchmark}
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = WebEnvironment.NONE)
+class BookDumpImportBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BookDumpImportBenchmark.class);
+    private static final int RECORDS = 200_000;
+
+    /**
+     * Fixed width, so the cleanup only matches the books of the run. Real ISBN-13 start with 978 or 979, so the
+     * benchmark ISBNs can't collide with them
+     */
+    private final String isbnPrefix = String.format("1%06d", System.currentTimeMillis() % 1_000_000);
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private BookDumpImportService bookDumpImportService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM book WHERE isbn LIKE ?", isbnPrefix + "%");
+    }
+
+    @Test
+    void importDump() throws IOException {
+        Path dump = directory.resolve("ol_dump_editions.txt.gz");
+        try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(dump))) {
+            for (int i = 0; i < RECORDS; i++) {
+                String record = "/type/edition\t/books/OL" + i + "M\t1\t2010-04-13T03:09:23.813373\t"
+                    + "{\"isbn_13\": [\"" + isbnPrefix + String.format("%07d", i) + "\"], \"title\": \"Zen speaks\", "
+                    + "\"subtitle\": \"shouts of nothingness\", \"publishers\": [\"Anchor Books\"], "
+                    + "\"number_of_pages\": 159, \"publish_date\": \"March 1994\", \"by_statement\": \"Zhizhong Cai\"}\n";
+                output.write(record.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        DumpImportProgress progress = bookDumpImportService.importDump(dump, 0,
+            report -> LOGGER.info("Dump import progress: {}", report));
+
+        assertEquals(RECORDS, progress.getImportedRecords());
+        LOGGER.info("Imported {} records in {} ms: {} records/s", RECORDS, progress.getElapsedMillis(),
+            progress.getRecordsPerSecond());
+    }
+}
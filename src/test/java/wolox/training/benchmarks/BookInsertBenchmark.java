@@ -0,0 +1,95 @@
+package wolox.training.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import wolox.training.models.Book;
+import wolox.training.util.MockTestEntities;
+
+/**
+ * Measure the insert rate of 100k books through Hibernate JDBC batching against the PostgreSQL database configured in
+ * the test application properties. The persistence context is flushed and cleared every batch, and the inserted books
+ * are not put in the second-level cache. It is excluded from the test task, run it with {@code ./gradlew benchmark}
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = WebEnvironment.NONE)
+class BookInsertBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BookInsertBenchmark.class);
+    private static final int BOOKS = 100_000;
+
+    /**
+     * Fixed width, so the cleanup only matches the books of the run. Real ISBN-13 start with 978 or 979, so the
+     * benchmark ISBNs can't collide with them
+     */
+    private final String isbnPrefix = String.format("1%06d", System.currentTimeMillis() % 1_000_000);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int batchSize;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM book WHERE isbn LIKE ?", isbnPrefix + "%");
+    }
+
+    @Test
+    void insertBooks() {
+        List<Book> books = new ArrayList<>(BOOKS);
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = MockTestEntities.mockNewBook();
+            book.setIsbn(isbnPrefix + String.format("%06d", i));
+            books.add(book);
+        }
+
+        long start = System.nanoTime();
+        int inserted = transactionTemplate.execute(status -> insertAll(books));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(BOOKS, inserted);
+        assertEquals(Integer.valueOf(BOOKS), jdbcTemplate.queryForObject("SELECT count(*) FROM book WHERE isbn LIKE ?",
+            Integer.class, isbnPrefix + "%"));
+        LOGGER.info("Inserted {} books in {} ms: {} books/s", BOOKS, elapsedMillis,
+            BOOKS * 1000L / Math.max(1, elapsedMillis));
+    }
+
+    private int insertAll(List<Book> books) {
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        for (int i = 0; i < books.size(); i++) {
+            entityManager.persist(books.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return books.size();
+    }
+}
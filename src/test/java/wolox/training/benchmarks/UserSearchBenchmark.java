@@ -0,0 +1,104 @@
+package wolox.training.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import wolox.training.models.User;
+import wolox.training.repositories.UserRepository;
+import wolox.training.repositories.specifications.UserSpecifications;
+
+/**
+ * Measure the latency of the user search while t_user grows 100 times, against the PostgreSQL database configured in
+ * the test application properties. The searched name only matches a fixed number of users of the run, so with the
+ * trigram and birthdate indexes the latency must grow much slower than the table. It is excluded from the test task,
+ * run it with {@code ./gradlew benchmark}
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = WebEnvironment.NONE)
+class UserSearchBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserSearchBenchmark.class);
+    private static final int[] TABLE_SIZES = {10_000, 100_000, 1_000_000};
+    private static final int MATCHING_USERS = 10;
+    private static final int WARMUP_SEARCHES = 50;
+    private static final int MEASURED_SEARCHES = 200;
+    private static final LocalDate START_DATE = LocalDate.of(1960, 1, 1);
+    private static final LocalDate END_DATE = LocalDate.of(1990, 12, 31);
+    private static final String INSERT_USERS = "INSERT INTO t_user (id, username, name, birthdate) "
+        + "SELECT nextval('user_seq'), ? || n, 'User ' || md5(n::text), DATE '1950-01-01' + (n % 20000) "
+        + "FROM generate_series(?, ?) n";
+    private static final String INSERT_MATCHING_USERS = "INSERT INTO t_user (id, username, name, birthdate) "
+        + "SELECT nextval('user_seq'), ? || 'match' || n, 'Juan David ' || ?, DATE '1983-02-15' "
+        + "FROM generate_series(1, ?) n";
+
+    private final long runId = System.currentTimeMillis();
+    private final String usernamePrefix = "bench" + runId + "-";
+    private final String searchedName = "celedon" + runId;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM t_user WHERE username LIKE ?", usernamePrefix + "%");
+    }
+
+    @Test
+    void searchUsersWhileTableGrows() {
+        jdbcTemplate.update(INSERT_MATCHING_USERS, usernamePrefix, "Celedon" + runId, MATCHING_USERS);
+
+        int seededUsers = 0;
+        double firstMicros = 0;
+        double lastMicros = 0;
+        for (int tableSize : TABLE_SIZES) {
+            jdbcTemplate.update(INSERT_USERS, usernamePrefix, seededUsers + 1, tableSize);
+            seededUsers = tableSize;
+            jdbcTemplate.execute("ANALYZE t_user");
+
+            for (int i = 0; i < WARMUP_SEARCHES; i++) {
+                search();
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < MEASURED_SEARCHES; i++) {
+                assertEquals(MATCHING_USERS, search().getTotalElements());
+            }
+            double micros = (double) TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start) / MEASURED_SEARCHES;
+
+            if (firstMicros == 0) {
+                firstMicros = micros;
+            }
+            lastMicros = micros;
+            LOGGER.info("Searched {} seeded users in {} us per search", tableSize, String.format("%.1f", micros));
+        }
+
+        double tableGrowth = (double) TABLE_SIZES[TABLE_SIZES.length - 1] / TABLE_SIZES[0];
+        double latencyGrowth = lastMicros / firstMicros;
+        LOGGER.info("The table grew {}x and the search latency {}x", String.format("%.0f", tableGrowth),
+            String.format("%.1f", latencyGrowth));
+        assertTrue(latencyGrowth < tableGrowth, "The search latency grew as fast as the table");
+    }
+
+    private Page<User> search() {
+        return userRepository.findAll(UserSpecifications.search(START_DATE, END_DATE, searchedName),
+            PageRequest.of(0, 20));
+    }
+}
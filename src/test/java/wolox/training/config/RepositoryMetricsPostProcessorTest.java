@@ -0,0 +1,93 @@
+package wolox.training.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.repository.Repository;
+import wolox.training.models.Book;
+import wolox.training.util.MockTestEntities;
+
+/**
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+class RepositoryMetricsPostProcessorTest {
+
+    private static final String REPOSITORY = "testRepository";
+
+    private MeterRegistry meterRegistry;
+    private TestRepository repository;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        ObjectProvider<MeterRegistry> meterRegistryProvider = mock(ObjectProvider.class);
+        when(meterRegistryProvider.getIfAvailable()).thenReturn(meterRegistry);
+
+        Book book = MockTestEntities.mockPersistedBook();
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.addInterface(TestRepository.class);
+        proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+            Long id = (Long) invocation.getArguments()[0];
+            if (id < 0) {
+                throw new IllegalArgumentException("Negative id");
+            }
+            return id.equals(book.getId()) ? book : null;
+        });
+
+        repository = (TestRepository) new RepositoryMetricsPostProcessor(meterRegistryProvider)
+            .postProcessAfterInitialization(proxyFactory.getProxy(), REPOSITORY);
+    }
+
+    @Test
+    void whenRepositoryMethodSucceeds_ThenSuccessIsTimed() {
+        repository.findOneById(1L);
+        assertNull(repository.findOneById(2L));
+
+        assertEquals(2, timerCount("findOneById", "SUCCESS"));
+        assertEquals(0, timerCount("findOneById", "ERROR"));
+    }
+
+    @Test
+    void whenRepositoryMethodFails_ThenErrorIsTimedAndRethrown() {
+        assertThrows(IllegalArgumentException.class, () -> repository.findOneById(-1L));
+
+        assertEquals(1, timerCount("findOneById", "ERROR"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenBeanIsNotRepository_ThenIsNotProxied() {
+        Object bean = new Object();
+
+        assertSame(bean, new RepositoryMetricsPostProcessor(mock(ObjectProvider.class))
+            .postProcessAfterInitialization(bean, "notRepository"));
+    }
+
+    private long timerCount(String method, String state) {
+        return meterRegistry.get(RepositoryMetricsPostProcessor.METRIC_NAME)
+            .tag("repository", REPOSITORY)
+            .tag("method", method)
+            .tag("state", state)
+            .timer()
+            .count();
+    }
+
+    interface TestRepository extends Repository<Book, Long> {
+
+        Book findOneById(Long id);
+    }
+}
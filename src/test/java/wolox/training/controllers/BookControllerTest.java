@@ -1,15 +1,30 @@
 package wolox.training.controllers;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static wolox.training.util.MockMvcHttpRequests.doDelete;
 import static wolox.training.util.MockMvcHttpRequests.doGet;
+import static wolox.training.util.MockMvcHttpRequests.doPost;
 import static wolox.training.util.MockMvcHttpRequests.doPut;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -17,18 +32,41 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import wolox.training.exceptions.BookNotFoundException;
+import wolox.training.exceptions.OpenLibraryUnavailableException;
 import wolox.training.models.Book;
 import wolox.training.models.BookDTO;
+import wolox.training.models.BookExportFormat;
+import wolox.training.models.BookImportResult;
+import wolox.training.models.BookImportResult.Status;
+import wolox.training.models.BookSuggestion;
+import wolox.training.models.BookSuggestion.Type;
 import wolox.training.repositories.BookRepository;
+import wolox.training.repositories.UserRepository;
 import wolox.training.security.CustomAuthenticationProvider;
+import wolox.training.services.BookBatchImportService;
+import wolox.training.services.BookExportService;
+import wolox.training.services.BookImportService;
+import wolox.training.services.BookSearchIndex;
+import wolox.training.services.BookStreamingService;
+import wolox.training.services.BookSuggestionService;
 import wolox.training.services.OpenLibraryService;
 import wolox.training.util.JsonUtil;
 import wolox.training.util.MockTestEntities;
+import wolox.training.utils.CompletableFutures;
 import wolox.training.utils.ErrorConstants;
 
 @WebMvcTest(controllers = BookController.class)
+@Import(BookImportService.class)
 @AutoConfigureMockMvc(addFilters = false)
 class BookControllerTest {
 
@@ -41,6 +79,18 @@ class BookControllerTest {
     private CustomAuthenticationProvider customAuthenticationProvider;
     @MockBean
     private OpenLibraryService openLibraryService;
+    @MockBean
+    private BookBatchImportService bookBatchImportService;
+    @MockBean
+    private BookStreamingService bookStreamingService;
+    @MockBean
+    private BookExportService bookExportService;
+    @MockBean
+    private BookSearchIndex bookSearchIndex;
+    @MockBean
+    private BookSuggestionService bookSuggestionService;
+    @MockBean
+    private UserRepository userRepository;
 
     @Autowired
     private MockMvc mockMvc;
@@ -80,6 +130,71 @@ class BookControllerTest {
             .andExpect(content().string(new String(JsonUtil.toJsonNonNulls(persistedBook))));
     }
 
+    @Test
+    void whenFindAllBooks_ThenReturnFirstPageAndHttpStatus200() throws Exception {
+        given(bookRepository.findAllByIdGreaterThanOrderByIdAsc(eq(0L), any()))
+            .willReturn(Collections.singletonList(book));
+
+        doGet(mockMvc, BASE_PATH)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items[0].id").value(1))
+            .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void whenFindAllBooksWithFullPage_ThenReturnNextCursor() throws Exception {
+        given(bookRepository.findAllByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 1)))
+            .willReturn(Collections.singletonList(book));
+
+        doGet(mockMvc, BASE_PATH + "?size=1")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.nextCursor").value(1));
+    }
+
+    @Test
+    void whenFindAllBooksWithSizeOverMax_ThenPageSizeIsCapped() throws Exception {
+        given(bookRepository.findAllByIdGreaterThanOrderByIdAsc(5L, PageRequest.of(0, 100)))
+            .willReturn(Collections.singletonList(book));
+
+        doGet(mockMvc, BASE_PATH + "?after=5&size=100000")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items[0].id").value(1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenSearchBooks_ThenReturnPageAndHttpStatus200() throws Exception {
+        given(bookRepository.findAll(any(Specification.class), any(Pageable.class)))
+            .willReturn(new PageImpl<>(Collections.singletonList(book)));
+
+        doGet(mockMvc, BASE_PATH + "/search?publisher=DEBATE&year=2014&page=0&size=10&sort=title")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].id").value(1))
+            .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    @Test
+    void whenFullTextSearchBooks_ThenReturnPageAndHttpStatus200() throws Exception {
+        given(bookSearchIndex.search("sapi", PageRequest.of(0, 10)))
+            .willReturn(new PageImpl<>(Collections.singletonList(book), PageRequest.of(0, 10), 1));
+
+        doGet(mockMvc, BASE_PATH + "/search?q=sapi&page=0&size=10")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].id").value(1))
+            .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    @Test
+    void whenSuggestBooks_ThenReturnSuggestionsAndHttpStatus200() throws Exception {
+        given(bookSuggestionService.suggest("sap", 5))
+            .willReturn(Collections.singletonList(new BookSuggestion("Sapiens", Type.TITLE, 1)));
+
+        doGet(mockMvc, BASE_PATH + "/suggestions?prefix=sap&limit=5")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].text").value("Sapiens"))
+            .andExpect(jsonPath("$[0].type").value("TITLE"));
+    }
+
     @Test
     void whenFindBookByIsbn_ThenHttpStatus200() throws Exception {
         Book persistedOpenLibraryBook = MockTestEntities.mockPersistedOpenLibraryBook();
@@ -87,7 +202,11 @@ class BookControllerTest {
 
         given(bookRepository.findByIsbn(isbn)).willReturn(Optional.of(persistedOpenLibraryBook));
 
-        doGet(mockMvc, BASE_PATH + "?isbn=" + isbn)
+        MvcResult asyncResult = doGet(mockMvc, BASE_PATH + "?isbn=" + isbn)
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(asyncResult))
             .andExpect(status().isOk())
             .andExpect(content().string(new String(JsonUtil.toJsonNonNulls(persistedOpenLibraryBook))));
     }
@@ -100,14 +219,20 @@ class BookControllerTest {
         Optional<Book> optionalBook = Optional.empty();
 
         given(bookRepository.findByIsbn(isbn)).willReturn(optionalBook);
-        when(openLibraryService.bookInfo(isbn)).thenReturn(bookDto);
+        when(openLibraryService.bookInfoAsync(isbn)).thenReturn(CompletableFuture.completedFuture(bookDto));
         when(bookRepository.save(any())).thenReturn(persistedOpenLibraryBook);
 
         Logger.getLogger(this.getClass().getName()).info(persistedOpenLibraryBook.toString());
 
-        doGet(mockMvc, BASE_PATH + "?isbn=" + isbn)
+        MvcResult asyncResult = doGet(mockMvc, BASE_PATH + "?isbn=" + isbn)
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(asyncResult))
             .andExpect(status().isCreated())
             .andExpect(content().string(new String(JsonUtil.toJsonNonNulls(persistedOpenLibraryBook))));
+        verify(bookSearchIndex).index(persistedOpenLibraryBook);
+        verify(bookSuggestionService).index(persistedOpenLibraryBook);
     }
 
     @Test
@@ -118,12 +243,92 @@ class BookControllerTest {
         Optional<Book> optionalBook = Optional.empty();
 
         given(bookRepository.findByIsbn(isbn)).willReturn(optionalBook);
-        when(openLibraryService.bookInfo(isbn))
-            .thenThrow( new BookNotFoundException(String.format(ErrorConstants.BOOK_ISBN_NOT_FOUND, isbn)));
+        when(openLibraryService.bookInfoAsync(isbn)).thenReturn(CompletableFutures.failed(
+            new BookNotFoundException(String.format(ErrorConstants.BOOK_ISBN_NOT_FOUND, isbn))));
 
         Logger.getLogger(this.getClass().getName()).info(persistedOpenLibraryBook.toString());
 
-        doGet(mockMvc, BASE_PATH + "?isbn=077")
+        MvcResult asyncResult = doGet(mockMvc, BASE_PATH + "?isbn=077")
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(asyncResult))
             .andExpect(status().isNotFound());
     }
+
+    @Test
+    void whenFindBookByIsbnAndOpenLibraryIsUnavailable_ThenHttpStatus503() throws Exception {
+        String isbn = "0385472579";
+
+        given(bookRepository.findByIsbn(isbn)).willReturn(Optional.empty());
+        when(openLibraryService.bookInfoAsync(isbn)).thenReturn(CompletableFutures.failed(
+            new OpenLibraryUnavailableException(ErrorConstants.OPEN_LIBRARY_TOO_MANY_REQUESTS)));
+
+        MvcResult asyncResult = doGet(mockMvc, BASE_PATH + "?isbn=" + isbn)
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(asyncResult))
+            .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void whenImportBooks_ThenReturnStatusByIsbnAndHttpStatus200() throws Exception {
+        List<String> isbns = Arrays.asList("0385472579", "077");
+        given(bookBatchImportService.importByIsbns(isbns)).willReturn(Arrays.asList(
+            new BookImportResult("0385472579", Status.IMPORTED),
+            new BookImportResult("077", Status.NOT_FOUND)));
+
+        doPost(mockMvc, BASE_PATH + "/import", isbns)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].status").value("IMPORTED"))
+            .andExpect(jsonPath("$[1].status").value("NOT_FOUND"));
+    }
+
+    @Test
+    void whenStreamBooks_ThenWriteJsonArraySynchronously() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(0);
+            outputStream.write(JsonUtil.toJsonNonNulls(Collections.singletonList(book)));
+            return 1L;
+        }).when(bookStreamingService).writeAll(any(OutputStream.class));
+
+        mockMvc.perform(get(BASE_PATH + "/stream"))
+            .andExpect(request().asyncNotStarted())
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$[0].isbn").value(book.getIsbn()));
+    }
+
+    @Test
+    void whenExportBooks_ThenWriteCsvAttachment() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(2);
+            outputStream.write("id,isbn\r\n1,0385472579\r\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(bookExportService).writeAll(eq(BookExportFormat.CSV), eq(false), any(OutputStream.class));
+
+        mockMvc.perform(get(BASE_PATH + "/export"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("text/csv;charset=UTF-8"))
+            .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=books.csv"))
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+            .andExpect(content().string("id,isbn\r\n1,0385472579\r\n"));
+    }
+
+    @Test
+    void whenExportBooksAcceptingGzip_ThenWriteCompressedNdjson() throws Exception {
+        mockMvc.perform(get(BASE_PATH + "/export?format=NDJSON").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-ndjson"))
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+
+        verify(bookExportService).writeAll(eq(BookExportFormat.NDJSON), eq(true), any(OutputStream.class));
+    }
+
+    @Test
+    void whenExportBooksWithUnknownFormat_ThenHttpStatus400() throws Exception {
+        mockMvc.perform(get(BASE_PATH + "/export?format=XML"))
+            .andExpect(status().isBadRequest());
+    }
 }
@@ -12,14 +12,23 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.web.servlet.MockMvc;
 import wolox.training.models.Book;
 import wolox.training.repositories.BookRepository;
+import wolox.training.repositories.UserRepository;
 import wolox.training.security.CustomAuthenticationProvider;
+import wolox.training.services.BookBatchImportService;
+import wolox.training.services.BookExportService;
+import wolox.training.services.BookImportService;
+import wolox.training.services.BookSearchIndex;
+import wolox.training.services.BookStreamingService;
+import wolox.training.services.BookSuggestionService;
 import wolox.training.services.OpenLibraryService;
 import wolox.training.util.MockTestEntities;
 
 @WebMvcTest(BookController.class)
+@Import(BookImportService.class)
 class SecuredBookControllerTest {
 
     private static final String BASE_PATH = "/books";
@@ -32,6 +41,18 @@ class SecuredBookControllerTest {
     private CustomAuthenticationProvider customAuthenticationProvider;
     @MockBean
     private OpenLibraryService openLibraryService;
+    @MockBean
+    private BookBatchImportService bookBatchImportService;
+    @MockBean
+    private BookStreamingService bookStreamingService;
+    @MockBean
+    private BookExportService bookExportService;
+    @MockBean
+    private BookSearchIndex bookSearchIndex;
+    @MockBean
+    private BookSuggestionService bookSuggestionService;
+    @MockBean
+    private UserRepository userRepository;
 
     @Autowired
     private MockMvc mockMvc;
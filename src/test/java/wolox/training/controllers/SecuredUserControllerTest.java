@@ -3,7 +3,10 @@ package wolox.training.controllers;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static wolox.training.util.MockMvcHttpRequests.doGet;
 import static wolox.training.util.MockMvcHttpRequests.doPost;
@@ -15,13 +18,18 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import wolox.training.models.User;
 import wolox.training.repositories.BookRepository;
+import wolox.training.repositories.UserBookRepository;
 import wolox.training.repositories.UserRepository;
 import wolox.training.security.CustomAuthenticationProvider;
+import wolox.training.security.TokenService;
+import wolox.training.services.PasswordService;
+import wolox.training.services.UserBookService;
 import wolox.training.util.MockTestEntities;
 
 @WebMvcTest(UserController.class)
@@ -32,10 +40,18 @@ class SecuredUserControllerTest {
     @MockBean
     private BookRepository bookRepository;
     @MockBean
+    private UserBookRepository userBookRepository;
+    @MockBean
     private CustomAuthenticationProvider customAuthenticationProvider;
+    @MockBean
+    private PasswordService passwordService;
+    @MockBean
+    private UserBookService userBookService;
 
     @Autowired
     private MockMvc mockMvc;
+    @Autowired
+    private TokenService tokenService;
     private static final String BASE_PATH = "/users";
     private static User newUser;
     private static User persistedUser;
@@ -68,7 +84,7 @@ class SecuredUserControllerTest {
 
     @Test
     void whenFindUserByIdWithoutAuthentication_ThenHttpStatus401() throws Exception {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(persistedUser));
+        when(userRepository.findWithBooksById(1L)).thenReturn(Optional.of(persistedUser));
 
         doGet(mockMvc, BASE_PATH + "/1")
             .andExpect(status().isUnauthorized())
@@ -113,4 +129,45 @@ class SecuredUserControllerTest {
         doPut(mockMvc, BASE_PATH + "/1/password", persistedUser)
             .andExpect(status().isNoContent());
     }
+
+    @Test
+    @WithMockUser("samanthao")
+    void whenLogin_ThenReturnBearerToken() throws Exception {
+        given(userRepository.findOneByUsername("samanthao")).willReturn(Optional.of(persistedUser));
+
+        doPost(mockMvc, BASE_PATH + "/login")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.token").isNotEmpty())
+            .andExpect(jsonPath("$.tokenType").value("Bearer"));
+    }
+
+    @Test
+    void whenLoginWithBearerToken_ThenHttpStatus401() throws Exception {
+        given(userRepository.findOneByUsername("samanthao")).willReturn(Optional.of(persistedUser));
+        given(userRepository.findTokenVersionById(1L)).willReturn(Optional.of(0L));
+        String token = tokenService.issueToken(1L, "samanthao");
+
+        mockMvc.perform(post(BASE_PATH + "/login").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+            .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void whenGetAuthenticatedUserWithBearerToken_ThenHttpStatus200() throws Exception {
+        given(userRepository.findTokenVersionById(1L)).willReturn(Optional.of(0L));
+        String token = tokenService.issueToken(1L, "samanthao");
+
+        mockMvc.perform(get(BASE_PATH + "/currentUser").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+            .andExpect(status().isOk())
+            .andExpect(content().string("{\"user\": \"samanthao\"}"));
+    }
+
+    @Test
+    void whenGetAuthenticatedUserWithRevokedToken_ThenHttpStatus401() throws Exception {
+        given(userRepository.findTokenVersionById(2L)).willReturn(Optional.of(0L), Optional.of(1L));
+        String token = tokenService.issueToken(2L, "juandc");
+        tokenService.revokeTokens(2L);
+
+        mockMvc.perform(get(BASE_PATH + "/currentUser").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+            .andExpect(status().isUnauthorized());
+    }
 }
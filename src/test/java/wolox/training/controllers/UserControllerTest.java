@@ -1,26 +1,45 @@
 package wolox.training.controllers;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static wolox.training.util.MockMvcHttpRequests.doGet;
 import static wolox.training.util.MockMvcHttpRequests.doPost;
 import static wolox.training.util.MockMvcHttpRequests.doPut;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import wolox.training.models.BookOwnershipResult;
+import wolox.training.models.BookOwnershipResult.Status;
+import wolox.training.models.BulkBooksRequest;
+import wolox.training.models.BulkBooksRequest.Operation;
 import wolox.training.models.User;
+import wolox.training.models.UserSummary;
 import wolox.training.repositories.BookRepository;
+import wolox.training.repositories.UserBookRepository;
 import wolox.training.repositories.UserRepository;
 import wolox.training.security.CustomAuthenticationProvider;
+import wolox.training.services.PasswordService;
+import wolox.training.services.UserBookService;
 import wolox.training.util.JsonUtil;
 import wolox.training.util.MockTestEntities;
 
@@ -34,7 +53,13 @@ class UserControllerTest {
     @MockBean
     private BookRepository bookRepository;
     @MockBean
+    private UserBookRepository userBookRepository;
+    @MockBean
     private CustomAuthenticationProvider customAuthenticationProvider;
+    @MockBean
+    private PasswordService passwordService;
+    @MockBean
+    private UserBookService userBookService;
 
     @Autowired
     private MockMvc mockMvc;
@@ -50,10 +75,42 @@ class UserControllerTest {
 
     @Test
     void whenFindUserById_ThenHttpStatus200() throws Exception {
-        given(userRepository.findById(MAGIC_ID)).willReturn(Optional.of(persistedUser));
+        given(userRepository.findWithBooksById(MAGIC_ID)).willReturn(Optional.of(persistedUser));
+
+        doGet(mockMvc, BASE_PATH + "/1")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.username").value("samanthao"))
+            .andExpect(jsonPath("$.books").isArray())
+            .andExpect(jsonPath("$.password").doesNotExist());
+    }
+
+    @Test
+    void whenFindUnknownUserById_ThenHttpStatus404() throws Exception {
+        given(userRepository.findWithBooksById(MAGIC_ID)).willReturn(Optional.empty());
 
         doGet(mockMvc, BASE_PATH + "/1")
-            .andExpect(status().isOk());
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void whenFindAllUsers_ThenReturnSummariesAndHttpStatus200() throws Exception {
+        given(userRepository.findAllSummaries()).willReturn(Collections.singletonList(UserSummary.from(persistedUser)));
+
+        doGet(mockMvc, BASE_PATH)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].username").value("samanthao"))
+            .andExpect(jsonPath("$[0].books").doesNotExist());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenSearchUsers_ThenReturnPageAndHttpStatus200() throws Exception {
+        given(userRepository.findAll(any(Specification.class), any(Pageable.class)))
+            .willReturn(new PageImpl<>(Collections.singletonList(persistedUser)));
+
+        doGet(mockMvc, BASE_PATH + "/search?startDate=1980-01-01&endDate=2000-01-01&name=sam&page=0&size=10")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].username").value("samanthao"));
     }
 
     @Test
@@ -64,8 +121,9 @@ class UserControllerTest {
 
     @Test
     void whenAddBookToUser_ThenHttpStatus204() throws Exception {
-        given(userRepository.findById(MAGIC_ID)).willReturn(Optional.of(newUser));
-        given(bookRepository.existsById(MAGIC_ID)).willReturn(true);
+        given(userRepository.findById(MAGIC_ID)).willReturn(Optional.of(persistedUser));
+        given(bookRepository.findById(MAGIC_ID)).willReturn(Optional.of(MockTestEntities.mockPersistedBook()));
+        given(userBookRepository.addBook(MAGIC_ID, MAGIC_ID)).willReturn(1);
 
         mockMvc.perform(patch(BASE_PATH + "/1/books")
             .contentType(MediaType.APPLICATION_JSON)
@@ -74,6 +132,99 @@ class UserControllerTest {
             .andExpect(status().isNoContent());
     }
 
+    @Test
+    void whenAddOwnedBookToUser_ThenHttpStatus409() throws Exception {
+        given(userRepository.findById(MAGIC_ID)).willReturn(Optional.of(persistedUser));
+        given(bookRepository.findById(MAGIC_ID)).willReturn(Optional.of(MockTestEntities.mockPersistedBook()));
+        given(userBookRepository.addBook(MAGIC_ID, MAGIC_ID)).willReturn(0);
+
+        mockMvc.perform(patch(BASE_PATH + "/1/books")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(JsonUtil.toJsonWithNulls(MockTestEntities.mockPersistedBook())))
+            .andDo(print())
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    void whenAddBookToNoExistentUser_ThenHttpStatus404() throws Exception {
+        given(userRepository.findById(MAGIC_ID)).willReturn(Optional.empty());
+
+        mockMvc.perform(patch(BASE_PATH + "/1/books")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(JsonUtil.toJsonWithNulls(MockTestEntities.mockPersistedBook())))
+            .andDo(print())
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void whenRemoveNotOwnedBookFromUser_ThenHttpStatus404() throws Exception {
+        given(userRepository.findById(MAGIC_ID)).willReturn(Optional.of(persistedUser));
+        given(userBookRepository.removeBook(MAGIC_ID, MAGIC_ID)).willReturn(0);
+
+        mockMvc.perform(patch(BASE_PATH + "/1/books/1")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(JsonUtil.toJsonWithNulls(MockTestEntities.mockPersistedBook())))
+            .andDo(print())
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void whenAddSeveralBooksToUser_ThenReturnResultByBookAndHttpStatus200() throws Exception {
+        BulkBooksRequest request = new BulkBooksRequest();
+        request.setOperation(Operation.ADD);
+        request.setBookIds(Arrays.asList(1L, 2L));
+        given(userBookService.updateBooks(MAGIC_ID, request)).willReturn(Arrays.asList(
+            new BookOwnershipResult(1L, Status.ADDED),
+            new BookOwnershipResult(2L, Status.NOT_FOUND)));
+
+        mockMvc.perform(patch(BASE_PATH + "/1/books/bulk")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(JsonUtil.toJsonWithNulls(request)))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].status").value("ADDED"))
+            .andExpect(jsonPath("$[1].status").value("NOT_FOUND"));
+    }
+
+    @Test
+    void whenUpdateBooksWithoutIds_ThenHttpStatus400() throws Exception {
+        BulkBooksRequest request = new BulkBooksRequest();
+        request.setOperation(Operation.REMOVE);
+
+        mockMvc.perform(patch(BASE_PATH + "/1/books/bulk")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(JsonUtil.toJsonWithNulls(request)))
+            .andDo(print())
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenUpdateBooksWithTooManyIds_ThenHttpStatus400() throws Exception {
+        BulkBooksRequest request = new BulkBooksRequest();
+        request.setOperation(Operation.ADD);
+        request.setBookIds(LongStream.rangeClosed(1, BulkBooksRequest.MAX_BOOK_IDS + 1).boxed()
+            .collect(Collectors.toList()));
+
+        mockMvc.perform(patch(BASE_PATH + "/1/books/bulk")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(JsonUtil.toJsonWithNulls(request)))
+            .andExpect(status().isBadRequest());
+        verify(userBookService, never()).updateBooks(any(), any());
+    }
+
+    @Test
+    void whenUpdateBooksWithNullId_ThenHttpStatus400() throws Exception {
+        BulkBooksRequest request = new BulkBooksRequest();
+        request.setOperation(Operation.ADD);
+        request.setBookIds(Arrays.asList(1L, null));
+
+        mockMvc.perform(patch(BASE_PATH + "/1/books/bulk")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(JsonUtil.toJsonWithNulls(request)))
+            .andExpect(status().isBadRequest());
+        verify(userBookService, never()).updateBooks(any(), any());
+    }
+
     @Test
     void whenUpdatePassword_ThenHttpStatus204() throws Exception {
         given(userRepository.existsById(1L)).willReturn(true);
@@ -0,0 +1,279 @@
+package wolox.training.loadtest;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.extension.responsetemplating.ResponseTemplateTransformer;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPatch;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import wolox.training.models.Book;
+import wolox.training.models.User;
+import wolox.training.repositories.BookRepository;
+import wolox.training.repositories.UserRepository;
+import wolox.training.services.BookSearchIndex;
+import wolox.training.services.BookSuggestionService;
+
+/**
+ * Load test of the books and users API. The application runs on an in-memory H2 database in PostgreSQL mode and
+ * OpenLibrary is replaced by a local WireMock server, so it needs neither a database server nor network access. It is
+ * excluded from the test task, run it with {@code ./gradlew loadTest}, the load is configured with system properties:
+ * <ul>
+ *     <li>loadtest.concurrency: virtual users, 32 by default</li>
+ *     <li>loadtest.warmupSeconds and loadtest.durationSeconds: 10 and 60 by default</li>
+ *     <li>loadtest.books and loadtest.users: seeded rows, 5000 and 50 by default</li>
+ *     <li>loadtest.weight.&lt;scenario&gt;: relative frequency of a scenario, 0 to skip it</li>
+ *     <li>loadtest.maxErrorRate: failed requests allowed, 0.01 by default</li>
+ *     <li>loadtest.reportDir: where the .hgrm histograms and summary.json are written, build/reports/loadtest by
+ *     default</li>
+ * </ul>
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:loadtest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "security.bcrypt.strength=10"
+})
+class ApiLoadTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApiLoadTest.class);
+    private static final String PASSWORD = "loadtest";
+    private static final String[] TITLE_WORDS = {"history", "science", "sapiens", "deus", "zen", "nature", "time",
+        "universe", "mind", "society", "ocean", "war", "peace", "future", "city", "river"};
+    private static final String OPEN_LIBRARY_BOOK = "{\"{{request.query.bibkeys}}\": {\"title\": \"Zen speaks\", "
+        + "\"subtitle\": \"shouts of nothingness\", \"number_of_pages\": 159, \"publish_date\": \"1994\", "
+        + "\"publishers\": [{\"name\": \"Anchor Books\"}], \"authors\": [{\"name\": \"Zhizhong Cai\"}]}}";
+    private static final String NEW_BOOK = "{\"author\": \"Yuval Noah Harari\", \"title\": \"Homo Deus\", "
+        + "\"subtitle\": \"A Brief History of tomorrow\", \"image\": \"deus.jpg\", \"isbn\": \"%s\", "
+        + "\"pages\": \"496\", \"year\": \"2016\", \"publisher\": \"DEBATE\", \"genre\": \"Natural History\"}";
+    private static final WireMockServer OPEN_LIBRARY = new WireMockServer(options().dynamicPort()
+        .containerThreads(64)
+        .extensions(new ResponseTemplateTransformer(false)));
+
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+    private final int seededBooks = Integer.getInteger("loadtest.books", 5000);
+    private final int seededUsers = Integer.getInteger("loadtest.users", 50);
+    private final AtomicLong isbnSequence = new AtomicLong(9_780_000_000_000L);
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+    @Autowired
+    private BookSuggestionService bookSuggestionService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private CloseableHttpClient httpClient;
+    private String baseUrl;
+    private List<Long> bookIds;
+    private List<String> bookBodies;
+    private List<User> users;
+    private List<String> tokens;
+
+    @BeforeAll
+    static void startOpenLibrary() {
+        OPEN_LIBRARY.start();
+        OPEN_LIBRARY.stubFor(get(urlPathEqualTo("/api/books"))
+            .willReturn(aResponse().withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .withStatus(200)
+                .withBody(OPEN_LIBRARY_BOOK)
+                .withTransformers("response-template")
+                .withLogNormalRandomDelay(50, 0.3)));
+    }
+
+    @AfterAll
+    static void stopOpenLibrary() {
+        OPEN_LIBRARY.stop();
+    }
+
+    @DynamicPropertySource
+    static void openLibraryProperties(DynamicPropertyRegistry registry) {
+        registry.add("openLibraryUrl", () -> "http://localhost:" + OPEN_LIBRARY.port() + "/api/");
+    }
+
+    @BeforeEach
+    void seed() throws IOException {
+        httpClient = HttpClients.custom()
+            .setMaxConnTotal(concurrency)
+            .setMaxConnPerRoute(concurrency)
+            .build();
+        baseUrl = "http://localhost:" + port + "/api";
+
+        List<Book> books = new ArrayList<>(seededBooks);
+        for (int i = 0; i < seededBooks; i++) {
+            Book book = new Book();
+            book.setTitle(randomWord() + " " + randomWord());
+            book.setSubtitle("The " + randomWord() + " of " + randomWord());
+            book.setAuthor("Author " + i % 500);
+            book.setImage("cover.jpg");
+            book.setIsbn(nextIsbn());
+            book.setPages(String.valueOf(100 + i % 700));
+            book.setYear(String.valueOf(1950 + i % 70));
+            book.setPublisher("Publisher " + i % 50);
+            book.setGenre("Genre " + i % 20);
+            books.add(book);
+        }
+        bookIds = new ArrayList<>(seededBooks);
+        bookBodies = new ArrayList<>(seededBooks);
+        for (Book book : bookRepository.saveAll(books)) {
+            bookIds.add(book.getId());
+            bookBodies.add(objectMapper.writeValueAsString(book));
+        }
+        bookSearchIndex.rebuild();
+        bookSuggestionService.rebuild();
+
+        users = new ArrayList<>(seededUsers);
+        for (int i = 0; i < seededUsers; i++) {
+            User user = new User();
+            user.setUsername("loadtest" + i);
+            user.setName("Load Test " + i);
+            user.setPassword(passwordEncoder.encode(PASSWORD));
+            user.setBirthdate(LocalDate.of(1950 + i % 50, 1 + i % 12, 1 + i % 28));
+            users.add(user);
+        }
+        users = userRepository.saveAll(users);
+
+        tokens = new ArrayList<>(seededUsers);
+        for (User user : users) {
+            HttpPost login = new HttpPost(baseUrl + "/users/login");
+            login.setHeader(HttpHeaders.AUTHORIZATION, basic(user));
+            try (CloseableHttpResponse response = httpClient.execute(login)) {
+                tokens.add(objectMapper.readTree(response.getEntity().getContent()).get("token").asText());
+            }
+        }
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        httpClient.close();
+    }
+
+    @Test
+    void mixedLoad() throws InterruptedException, IOException {
+        LoadGenerator generator = new LoadGenerator()
+            .scenario("readBook", weight("readBook", 30), () -> send(authenticated(new HttpGet(
+                baseUrl + "/books/" + random(bookIds)))))
+            .scenario("listBooks", weight("listBooks", 10), () -> send(authenticated(new HttpGet(
+                baseUrl + "/books?size=20&after=" + random(bookIds)))))
+            .scenario("searchBooks", weight("searchBooks", 10), () -> send(authenticated(new HttpGet(
+                baseUrl + "/books/search?q=" + randomWord() + "+" + randomWord().substring(0, 3)))))
+            .scenario("suggestBooks", weight("suggestBooks", 5), () -> send(authenticated(new HttpGet(
+                baseUrl + "/books/suggestions?prefix=" + randomWord().substring(0, 2)))))
+            .scenario("readUser", weight("readUser", 10), () -> send(authenticated(new HttpGet(
+                baseUrl + "/users/" + random(users).getId()))))
+            .scenario("createBook", weight("createBook", 10), () -> send(json(new HttpPost(baseUrl + "/books"),
+                String.format(NEW_BOOK, nextIsbn())), 201))
+            .scenario("addBook", weight("addBook", 10), () -> send(authenticated(json(new HttpPatch(
+                baseUrl + "/users/" + random(users).getId() + "/books"), random(bookBodies))), 204, 409))
+            .scenario("importIsbn", weight("importIsbn", 5), () -> send(authenticated(new HttpGet(
+                baseUrl + "/books?isbn=" + nextIsbn())), 201))
+            .scenario("login", weight("login", 10), () -> {
+                HttpPost login = new HttpPost(baseUrl + "/users/login");
+                login.setHeader(HttpHeaders.AUTHORIZATION, basic(random(users)));
+                return send(login);
+            });
+
+        LoadReport report = generator.run(concurrency, Long.getLong("loadtest.warmupSeconds", 10),
+            Long.getLong("loadtest.durationSeconds", 60));
+
+        report.log(LOGGER);
+        report.writeTo(Paths.get(System.getProperty("loadtest.reportDir", "build/reports/loadtest")));
+        assertTrue(report.getTotalRequests() > 0);
+        assertTrue(report.getErrorRate() <= Double.parseDouble(System.getProperty("loadtest.maxErrorRate", "0.01")),
+            String.format("Error rate %.4f", report.getErrorRate()));
+    }
+
+    private boolean send(HttpUriRequest request, int... expectedStatuses) throws IOException {
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            EntityUtils.consume(response.getEntity());
+            int status = response.getStatusLine().getStatusCode();
+            return expectedStatuses.length == 0 ? status == 200 : IntStream.of(expectedStatuses)
+                .anyMatch(expected -> expected == status);
+        }
+    }
+
+    private <T extends HttpUriRequest> T authenticated(T request) {
+        request.setHeader(HttpHeaders.AUTHORIZATION, "Bearer " + random(tokens));
+        return request;
+    }
+
+    private static <T extends HttpEntityEnclosingRequestBase> T json(T request, String body) {
+        request.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+        return request;
+    }
+
+    private static String basic(User user) {
+        String credentials = user.getUsername() + ":" + PASSWORD;
+        return "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int weight(String scenario, int defaultWeight) {
+        return Integer.getInteger("loadtest.weight." + scenario, defaultWeight);
+    }
+
+    private String nextIsbn() {
+        return String.valueOf(isbnSequence.incrementAndGet());
+    }
+
+    private static String randomWord() {
+        return TITLE_WORDS[ThreadLocalRandom.current().nextInt(TITLE_WORDS.length)];
+    }
+
+    private static <T> T random(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+}
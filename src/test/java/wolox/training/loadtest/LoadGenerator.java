@@ -0,0 +1,147 @@
+package wolox.training.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Closed loop load generator. Every virtual user runs a randomly chosen scenario, by weight, as soon as its previous
+ * one ends. The latency of every request is recorded in microseconds in a HdrHistogram recorder per scenario, so the
+ * workers never contend on a lock to record it. Being closed loop, the latency does not include the time a request
+ * would have waited to be sent when the server stalls (coordinated omission), so read the high percentiles as a lower
+ * bound
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+class LoadGenerator {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final List<Scenario> scenarios = new ArrayList<>();
+    private int totalWeight;
+    private volatile boolean running;
+
+    /**
+     * Add a scenario to the mix
+     *
+     * @param name    scenario name used in the report
+     * @param weight  relative frequency of the scenario, it is skipped if it is zero
+     * @param request the scenario request, it returns false or throws an exception when it fails
+     * @return this generator
+     */
+    LoadGenerator scenario(String name, int weight, Request request) {
+        if (weight > 0) {
+            scenarios.add(new Scenario(name, weight, request));
+            totalWeight += weight;
+        }
+        return this;
+    }
+
+    /**
+     * Run the scenarios, discarding the latencies of the warm-up. The recorders are read as soon as the measurement
+     * ends, so the requests that end while the virtual users stop are not counted
+     *
+     * @param concurrency   number of virtual users
+     * @param warmupSeconds seconds before the measurement starts
+     * @param seconds       seconds of measurement
+     * @return the throughput and latencies of the measurement
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    LoadReport run(int concurrency, long warmupSeconds, long seconds) throws InterruptedException {
+        running = true;
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            executor.execute(this::runVirtualUser);
+        }
+
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+        long start = System.nanoTime();
+        scenarios.forEach(Scenario::reset);
+        TimeUnit.SECONDS.sleep(seconds);
+        long measuredNanos = System.nanoTime() - start;
+        List<LoadReport.ScenarioResult> results = scenarios.stream()
+            .map(Scenario::snapshot)
+            .collect(Collectors.toList());
+        running = false;
+
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        return new LoadReport(measuredNanos, results);
+    }
+
+    private void runVirtualUser() {
+        while (running) {
+            Scenario scenario = pick();
+            long start = System.nanoTime();
+            boolean succeeded;
+            try {
+                succeeded = scenario.request.execute();
+            } catch (Exception e) {
+                succeeded = false;
+            }
+            scenario.recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            if (!succeeded) {
+                scenario.errors.increment();
+            }
+        }
+    }
+
+    private Scenario pick() {
+        int value = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Scenario scenario : scenarios) {
+            value -= scenario.weight;
+            if (value < 0) {
+                return scenario;
+            }
+        }
+        throw new IllegalStateException("No scenario to run");
+    }
+
+    /**
+     * A request of a scenario
+     */
+    @FunctionalInterface
+    interface Request {
+
+        /**
+         * @return whether the response is the expected one
+         * @throws Exception if the request can not be sent or its response can not be read
+         */
+        boolean execute() throws Exception;
+    }
+
+    private static final class Scenario {
+
+        private final String name;
+        private final int weight;
+        private final Request request;
+        private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+        private final LongAdder errors = new LongAdder();
+
+        private Scenario(String name, int weight, Request request) {
+            this.name = name;
+            this.weight = weight;
+            this.request = request;
+        }
+
+        private void reset() {
+            recorder.reset();
+            errors.reset();
+        }
+
+        /**
+         * @return the latencies and errors recorded since the last reset, the later ones are left out
+         */
+        private LoadReport.ScenarioResult snapshot() {
+            return new LoadReport.ScenarioResult(name, recorder.getIntervalHistogram(), errors.sumThenReset());
+        }
+    }
+}
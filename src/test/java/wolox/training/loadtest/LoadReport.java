@@ -0,0 +1,130 @@
+package wolox.training.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+
+/**
+ * Throughput and latency histograms of a load test, by scenario and overall
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+class LoadReport {
+
+    static final String TOTAL = "total";
+    private static final double MICROS_PER_MILLI = 1000.0;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p99.9"};
+
+    private final long measuredNanos;
+    private final List<ScenarioResult> results;
+
+    LoadReport(long measuredNanos, List<ScenarioResult> scenarioResults) {
+        this.measuredNanos = measuredNanos;
+        this.results = new ArrayList<>(scenarioResults);
+
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        for (ScenarioResult result : scenarioResults) {
+            total.add(result.histogram);
+            totalErrors += result.errors;
+        }
+        this.results.add(new ScenarioResult(TOTAL, total, totalErrors));
+    }
+
+    /**
+     * @return the failed requests over all the requests
+     */
+    double getErrorRate() {
+        ScenarioResult total = results.get(results.size() - 1);
+        return total.histogram.getTotalCount() == 0 ? 0 : (double) total.errors / total.histogram.getTotalCount();
+    }
+
+    long getTotalRequests() {
+        return results.get(results.size() - 1).histogram.getTotalCount();
+    }
+
+    void log(Logger logger) {
+        logger.info(String.format("%-14s %9s %7s %9s %9s %9s %9s %9s %9s", "scenario", "requests", "errors",
+            "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (ScenarioResult result : results) {
+            Histogram histogram = result.histogram;
+            logger.info(String.format("%-14s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f", result.name,
+                histogram.getTotalCount(), result.errors, throughput(histogram),
+                millis(histogram.getValueAtPercentile(PERCENTILES[0])),
+                millis(histogram.getValueAtPercentile(PERCENTILES[1])),
+                millis(histogram.getValueAtPercentile(PERCENTILES[2])),
+                millis(histogram.getValueAtPercentile(PERCENTILES[3])),
+                millis(histogram.getMaxValue())));
+        }
+    }
+
+    /**
+     * Write the percentile distribution of every scenario in HdrHistogram format (.hgrm, in milliseconds) and a JSON
+     * summary to compare runs
+     *
+     * @param directory created if it does not exist
+     * @throws IOException if the files can not be written
+     */
+    void writeTo(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        List<Map<String, Object>> summary = new ArrayList<>();
+        for (ScenarioResult result : results) {
+            try (OutputStream output = Files.newOutputStream(directory.resolve(result.name + ".hgrm"));
+                PrintStream printStream = new PrintStream(output, false, "UTF-8")) {
+                result.histogram.outputPercentileDistribution(printStream, MICROS_PER_MILLI);
+            }
+
+            Map<String, Object> scenario = new LinkedHashMap<>();
+            scenario.put("scenario", result.name);
+            scenario.put("requests", result.histogram.getTotalCount());
+            scenario.put("errors", result.errors);
+            scenario.put("throughput", throughput(result.histogram));
+            scenario.put("meanMillis", result.histogram.getMean() / MICROS_PER_MILLI);
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                scenario.put(PERCENTILE_NAMES[i] + "Millis",
+                    millis(result.histogram.getValueAtPercentile(PERCENTILES[i])));
+            }
+            scenario.put("maxMillis", millis(result.histogram.getMaxValue()));
+            summary.add(scenario);
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(directory.resolve("summary.json").toFile(),
+            summary);
+    }
+
+    private double throughput(Histogram histogram) {
+        return histogram.getTotalCount() * (double) TimeUnit.SECONDS.toNanos(1) / measuredNanos;
+    }
+
+    private static double millis(long micros) {
+        return micros / MICROS_PER_MILLI;
+    }
+
+    /**
+     * Latencies in microseconds and failed requests of a scenario
+     */
+    static final class ScenarioResult {
+
+        private final String name;
+        private final Histogram histogram;
+        private final long errors;
+
+        ScenarioResult(String name, Histogram histogram, long errors) {
+            this.name = name;
+            this.histogram = histogram;
+            this.errors = errors;
+        }
+    }
+}
@@ -14,7 +14,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import wolox.training.models.Book;
+import wolox.training.repositories.specifications.BookSpecifications;
 import wolox.training.util.MockTestEntities;
 
 /**
@@ -105,4 +109,36 @@ class BookRepositoryTest {
 
         assertEquals(1, books.size(), WRONG_SIZE);
     }
+
+    @Test
+    void whenFindAllBooksAfterLastId_ThenReturnEmptyList() {
+        Book persisted = bookRepository.saveAndFlush(book);
+
+        List<Book> firstPage = bookRepository.findAllByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 10));
+        List<Book> nextPage = bookRepository.findAllByIdGreaterThanOrderByIdAsc(persisted.getId(),
+            PageRequest.of(0, 10));
+
+        assertEquals(1, firstPage.size(), WRONG_SIZE);
+        assertEquals(0, nextPage.size(), WRONG_SIZE);
+    }
+
+    @Test
+    void whenFindAllBooksByPublisherAndGenreAndYearWithOneMismatch_ThenReturnEmptyList() {
+        bookRepository.saveAndFlush(book);
+
+        List<Book> books = bookRepository.findAllByPublisherAndGenreAndYear(PUBLISHER, "Fiction", null);
+
+        assertEquals(0, books.size(), WRONG_SIZE);
+    }
+
+    @Test
+    void whenSearchBooksWithPagination_ThenReturnPage() {
+        bookRepository.saveAndFlush(book);
+
+        Page<Book> page = bookRepository.findAll(BookSpecifications.search(null, GENRE, YEAR),
+            PageRequest.of(0, 10, Sort.by("title")));
+
+        assertEquals(1, page.getTotalElements(), WRONG_SIZE);
+        assertEquals(book, page.getContent().get(0), WRONG_BOOK);
+    }
 }
@@ -0,0 +1,61 @@
+package wolox.training.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+/**
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+class UserBookRepositoryImplTest {
+
+    private static final Long USER_ID = 1L;
+    private static final String USER_BOOKS_ROLE = "wolox.training.models.User.books";
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private Cache cache;
+    private UserBookRepositoryImpl userBookRepository;
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        cache = mock(Cache.class);
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        javax.persistence.Cache jpaCache = mock(javax.persistence.Cache.class);
+        when(entityManagerFactory.getCache()).thenReturn(jpaCache);
+        when(jpaCache.unwrap(Cache.class)).thenReturn(cache);
+        userBookRepository = new UserBookRepositoryImpl(jdbcTemplate, entityManagerFactory);
+    }
+
+    @Test
+    void whenAddBook_ThenCachedBooksOfUserAreEvicted() {
+        when(jdbcTemplate.update(anyString(), any(SqlParameterSource.class))).thenReturn(1);
+
+        assertEquals(1, userBookRepository.addBook(USER_ID, 2L));
+        verify(cache).evictCollectionData(USER_BOOKS_ROLE, USER_ID);
+    }
+
+    @Test
+    void whenRemoveBooks_ThenCachedBooksOfUserAreEvicted() {
+        when(jdbcTemplate.queryForList(anyString(), any(SqlParameterSource.class), eq(Long.class)))
+            .thenReturn(Collections.singletonList(2L));
+
+        assertEquals(Collections.singletonList(2L), userBookRepository.removeBooks(USER_ID, Arrays.asList(2L, 3L)));
+        verify(cache).evictCollectionData(USER_BOOKS_ROLE, USER_ID);
+    }
+}
@@ -0,0 +1,92 @@
+package wolox.training.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import wolox.training.models.Book;
+import wolox.training.models.User;
+import wolox.training.util.MockTestEntities;
+
+/**
+ * Runs the ownership statements on the schema generated from the entities, in the PostgreSQL mode of H2
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:userbooks;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class UserBookRepositoryTest {
+
+    private static final String COUNT_OWNERSHIPS = "SELECT COUNT(*) FROM t_user_books WHERE users_id = ? "
+        + "AND books_id = ?";
+    private static final String INSERT_OWNERSHIP = "INSERT INTO t_user_books (users_id, books_id) VALUES (?, ?)";
+
+    @Autowired
+    private UserBookRepository userBookRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Book book;
+
+    @BeforeEach
+    void setup() {
+        user = entityManager.persist(MockTestEntities.mockNewUser());
+        book = entityManager.persist(MockTestEntities.mockNewBook());
+        entityManager.flush();
+    }
+
+    @Test
+    void whenAddSameBookTwice_ThenSecondAddChangesNothing() {
+        assertEquals(1, userBookRepository.addBook(user.getId(), book.getId()));
+        assertEquals(0, userBookRepository.addBook(user.getId(), book.getId()));
+
+        assertEquals(1, ownerships());
+    }
+
+    @Test
+    void whenAddMissingBook_ThenNothingIsAdded() {
+        assertEquals(0, userBookRepository.addBook(user.getId(), book.getId() + 1));
+    }
+
+    @Test
+    void whenRemoveOwnedBook_ThenIsRemovedOnce() {
+        userBookRepository.addBook(user.getId(), book.getId());
+
+        assertEquals(1, userBookRepository.removeBook(user.getId(), book.getId()));
+        assertEquals(0, userBookRepository.removeBook(user.getId(), book.getId()));
+        assertEquals(0, ownerships());
+    }
+
+    @Test
+    void whenOwnershipIsDuplicated_ThenUniqueConstraintRejectsIt() {
+        userBookRepository.addBook(user.getId(), book.getId());
+
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(INSERT_OWNERSHIP,
+            user.getId(), book.getId()));
+    }
+
+    private int ownerships() {
+        return jdbcTemplate.queryForObject(COUNT_OWNERSHIPS, Integer.class, user.getId(), book.getId());
+    }
+}
@@ -2,6 +2,7 @@ package wolox.training.repositories;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static wolox.training.util.MessageConstants.EXCEPTION_THROWN;
 import static wolox.training.util.MessageConstants.WRONG_SIZE;
 import static wolox.training.util.MessageConstants.WRONG_USER;
@@ -13,7 +14,15 @@ import javax.validation.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import wolox.training.exceptions.BookAlreadyOwnedException;
+import wolox.training.models.Book;
 import wolox.training.models.User;
+import wolox.training.models.UserSummary;
+import wolox.training.repositories.specifications.UserSpecifications;
 import wolox.training.util.MockTestEntities;
 
 /**
@@ -26,6 +35,10 @@ class UserRepositoryTest {
 
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private TestEntityManager entityManager;
     public static final LocalDate START_DATE = LocalDate.of(1981, 12, 13);
     public static final LocalDate END_DATE = LocalDate.of(2000, 4, 5);
     public static final String NAME = "ua";
@@ -105,4 +118,80 @@ class UserRepositoryTest {
         List<User> users = userRepository.findAllByBirthdateBetweenAndNameContainingIgnoreCase(null, null, null);
         assertEquals(1, users.size(), WRONG_SIZE);
     }
+
+    @Test
+    void whenAddBookToUser_ThenOwnershipIsPersisted() {
+        Book book = bookRepository.saveAndFlush(MockTestEntities.mockNewBook());
+        User user = userRepository.saveAndFlush(MockTestEntities.mockNewUser());
+
+        user.addBook(book);
+        userRepository.saveAndFlush(user);
+
+        assertTrue(userRepository.findById(user.getId()).get().getBooks().contains(book));
+    }
+
+    @Test
+    void whenAddSameBookTwice_ThenThrowException() {
+        Book book = bookRepository.saveAndFlush(MockTestEntities.mockNewBook());
+        User user = MockTestEntities.mockNewUser();
+        user.addBook(book);
+
+        Book sameBook = MockTestEntities.mockPersistedBook();
+        ReflectionTestUtils.setField(sameBook, "id", book.getId());
+
+        assertThrows(BookAlreadyOwnedException.class, () -> user.addBook(sameBook), EXCEPTION_THROWN);
+    }
+
+    @Test
+    void whenFindAllUsersWithNameNotContained_ThenReturnEmptyList() {
+        userRepository.saveAndFlush(MockTestEntities.mockNewUser());
+
+        List<User> users = userRepository.findAllByBirthdateBetweenAndNameContainingIgnoreCase(START_DATE, END_DATE,
+            "xyz");
+        assertEquals(0, users.size(), WRONG_SIZE);
+    }
+
+    @Test
+    void whenSearchUsersWithLikeWildcardInName_ThenWildcardIsMatchedLiterally() {
+        userRepository.saveAndFlush(MockTestEntities.mockNewUser());
+
+        Page<User> users = userRepository.findAll(UserSpecifications.search(null, null, "%"), PageRequest.of(0, 10));
+        assertEquals(0, users.getTotalElements(), WRONG_SIZE);
+    }
+
+    @Test
+    void whenSearchUsersByNameIgnoringCase_ThenReturnPage() {
+        User user = userRepository.saveAndFlush(MockTestEntities.mockNewUser());
+
+        Page<User> users = userRepository.findAll(UserSpecifications.search(START_DATE, null, "CELEDON"),
+            PageRequest.of(0, 10));
+        assertEquals(1, users.getTotalElements(), WRONG_SIZE);
+        assertEquals(user, users.getContent().get(0), WRONG_USER);
+    }
+
+    @Test
+    void whenFindUserWithBooksById_ThenBooksAreLoadedInTheSameQuery() {
+        Book book = bookRepository.saveAndFlush(MockTestEntities.mockNewBook());
+        User user = MockTestEntities.mockNewUser();
+        user.addBook(book);
+        userRepository.saveAndFlush(user);
+        entityManager.clear();
+
+        User foundUser = userRepository.findWithBooksById(user.getId()).get();
+
+        assertTrue(entityManager.getEntityManager().getEntityManagerFactory().getPersistenceUnitUtil()
+            .isLoaded(foundUser, "books"));
+        assertEquals(1, foundUser.getBooks().size(), WRONG_SIZE);
+    }
+
+    @Test
+    void whenFindAllSummaries_ThenReturnUsersWithoutBooks() {
+        User user = userRepository.saveAndFlush(MockTestEntities.mockNewUser());
+
+        List<UserSummary> users = userRepository.findAllSummaries();
+
+        assertEquals(1, users.size(), WRONG_SIZE);
+        assertEquals(user.getId(), users.get(0).getId(), WRONG_USER);
+        assertEquals(user.getUsername(), users.get(0).getUsername(), WRONG_USER);
+    }
 }
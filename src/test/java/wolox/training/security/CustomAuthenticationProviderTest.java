@@ -0,0 +1,104 @@
+package wolox.training.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import wolox.training.models.User;
+import wolox.training.repositories.UserRepository;
+import wolox.training.util.MockTestEntities;
+
+/**
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+class CustomAuthenticationProviderTest {
+
+    private static final String USERNAME = "samanthao";
+    private static final String PASSWORD = "prueba";
+
+    private PasswordEncoder encoder;
+    private MeterRegistry meterRegistry;
+    private CustomAuthenticationProvider authenticationProvider;
+
+    @BeforeEach
+    void setup() {
+        User user = MockTestEntities.mockPersistedUser();
+        UserRepository userRepository = mock(UserRepository.class);
+        encoder = mock(PasswordEncoder.class);
+        when(userRepository.findOneByUsername(USERNAME)).thenReturn(Optional.of(user));
+        when(encoder.matches(PASSWORD, user.getPassword())).thenReturn(true);
+
+        meterRegistry = new SimpleMeterRegistry();
+        authenticationProvider = new CustomAuthenticationProvider(100, 60, meterRegistry);
+        ReflectionTestUtils.setField(authenticationProvider, "userRepository", userRepository);
+        ReflectionTestUtils.setField(authenticationProvider, "encoder", encoder);
+    }
+
+    @Test
+    void whenAuthenticateTwice_ThenPasswordIsVerifiedOnce() {
+        assertNotNull(authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(USERNAME, PASSWORD)));
+        assertNotNull(authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(USERNAME, PASSWORD)));
+
+        verify(encoder, times(1)).matches(anyString(), anyString());
+    }
+
+    @Test
+    void whenAuthenticateWithWrongPasswordAfterSuccess_ThenReturnNull() {
+        authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(USERNAME, PASSWORD));
+
+        assertNull(authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(USERNAME, "wrong")));
+    }
+
+    @Test
+    void whenCredentialsAreEvicted_ThenPasswordIsVerifiedAgain() {
+        authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(USERNAME, PASSWORD));
+        authenticationProvider.evictCredentials(1L);
+        authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(USERNAME, PASSWORD));
+
+        verify(encoder, times(2)).matches(anyString(), anyString());
+    }
+
+    @Test
+    void whenCredentialsAreEvictedDuringVerification_ThenVerificationIsNotCached() {
+        User user = MockTestEntities.mockPersistedUser();
+        when(encoder.matches(PASSWORD, user.getPassword())).thenAnswer(invocation -> {
+            authenticationProvider.evictCredentials(user.getId());
+            return true;
+        }).thenReturn(true);
+
+        authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(USERNAME, PASSWORD));
+        authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(USERNAME, PASSWORD));
+        authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(USERNAME, PASSWORD));
+
+        verify(encoder, times(2)).matches(anyString(), anyString());
+    }
+
+    @Test
+    void whenAuthenticate_ThenVerificationsAreTimedByResult() {
+        authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(USERNAME, PASSWORD));
+        authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(USERNAME, PASSWORD));
+        authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(USERNAME, "wrong"));
+
+        assertEquals(1, meterRegistry.get("security.password.verifications").tag("result", "accepted").timer()
+            .count());
+        assertEquals(1, meterRegistry.get("security.password.verifications").tag("result", "rejected").timer()
+            .count());
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", "verifiedCredentials").tag("result", "hit")
+            .functionCounter().count());
+    }
+}
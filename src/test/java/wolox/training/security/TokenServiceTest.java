@@ -0,0 +1,112 @@
+package wolox.training.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import wolox.training.repositories.UserRepository;
+
+/**
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+class TokenServiceTest {
+
+    private UserRepository userRepository;
+    private TokenService tokenService;
+
+    @BeforeEach
+    void setup() {
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0L));
+        tokenService = tokenService("secret", 3600);
+    }
+
+    @Test
+    void whenVerifyIssuedToken_ThenReturnUsername() {
+        String token = tokenService.issueToken(1L, "user:with:colons");
+
+        assertEquals(Optional.of("user:with:colons"), tokenService.verifyToken(token));
+    }
+
+    @Test
+    void whenVerifyTamperedToken_ThenReturnEmpty() {
+        String token = tokenService.issueToken(1L, "samanthao");
+        String tamperedToken = "x" + token.substring(1);
+
+        assertFalse(tokenService.verifyToken(tamperedToken).isPresent());
+        assertFalse(tokenService.verifyToken("malformed").isPresent());
+    }
+
+    @Test
+    void whenVerifyTokenSignedWithOtherSecret_ThenReturnEmpty() {
+        String token = tokenService("other secret", 3600).issueToken(1L, "samanthao");
+
+        assertFalse(tokenService.verifyToken(token).isPresent());
+    }
+
+    @Test
+    void whenVerifyExpiredToken_ThenReturnEmpty() throws InterruptedException {
+        TokenService expiringTokenService = tokenService("secret", 0);
+        String token = expiringTokenService.issueToken(1L, "samanthao");
+        Thread.sleep(5);
+
+        assertFalse(expiringTokenService.verifyToken(token).isPresent());
+    }
+
+    @Test
+    void whenVerifyRevokedToken_ThenReturnEmpty() {
+        String token = tokenService.issueToken(1L, "samanthao");
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(1L));
+        tokenService.revokeTokens(1L);
+
+        assertFalse(tokenService.verifyToken(token).isPresent());
+        verify(userRepository).incrementTokenVersion(1L);
+    }
+
+    @Test
+    void whenVerifyTokenIssuedRightAfterRevocation_ThenReturnUsername() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(1L));
+        tokenService.revokeTokens(1L);
+        String token = tokenService.issueToken(1L, "samanthao");
+
+        assertEquals(Optional.of("samanthao"), tokenService.verifyToken(token));
+    }
+
+    @Test
+    void whenVerifyTokenRevokedByOtherInstance_ThenReturnEmptyOnceVersionIsReloaded() {
+        TokenService otherTokenService = tokenService("secret", 3600);
+        String token = tokenService.issueToken(1L, "samanthao");
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(1L));
+        otherTokenService.revokeTokens(1L);
+
+        assertTrue(tokenService.verifyToken(token).isPresent());
+        assertFalse(tokenService("secret", 3600).verifyToken(token).isPresent());
+    }
+
+    @Test
+    void whenVerifyTokenOfDeletedUser_ThenReturnEmpty() {
+        String token = tokenService.issueToken(1L, "samanthao");
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.empty());
+        tokenService.revokeTokens(1L);
+
+        assertFalse(tokenService.verifyToken(token).isPresent());
+    }
+
+    @Test
+    void whenSecretIsEmpty_ThenThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> tokenService("", 3600));
+    }
+
+    private TokenService tokenService(String secret, long ttlSeconds) {
+        return new TokenService(secret, ttlSeconds, 100, 5, userRepository);
+    }
+}
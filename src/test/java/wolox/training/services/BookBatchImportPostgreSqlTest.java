@@ -0,0 +1,106 @@
+package wolox.training.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import wolox.training.models.Book;
+import wolox.training.repositories.BookRepository;
+import wolox.training.util.MockTestEntities;
+
+/**
+ * Runs the multi-row book insert on the PostgreSQL database configured in the test application properties, the
+ * sequence and ON CONFLICT syntax it uses are not supported by H2. It is excluded from the test task, run it with
+ * {@code ./gradlew postgresqlTest}
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@Tag("postgresql")
+@SpringBootTest(webEnvironment = WebEnvironment.NONE)
+class BookBatchImportPostgreSqlTest {
+
+    private static final int BOOKS = 120;
+    private static final int BATCH_SIZE = 50;
+    private static final String SELECT_IDS = "SELECT id FROM book WHERE isbn LIKE ?";
+
+    /**
+     * Fixed width, so the cleanup only matches the books of the run. Real ISBN-13 start with 978 or 979, so the test
+     * ISBNs can't collide with them
+     */
+    private final String isbnPrefix = String.format("2%06d", System.currentTimeMillis() % 1_000_000);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BookRepository bookRepository;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM book WHERE isbn LIKE ?", isbnPrefix + "%");
+    }
+
+    @Test
+    void whenInsertNewBooks_ThenAllAreInsertedWithIdsOfFewSequenceValues() {
+        List<Book> books = books(0, BOOKS);
+
+        Set<String> insertedIsbns = BookBatchImportService.insertMissing(jdbcTemplate, books, BATCH_SIZE);
+
+        assertEquals(isbns(books), insertedIsbns);
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_IDS, Long.class, isbnPrefix + "%");
+        assertEquals(BOOKS, new HashSet<>(ids).size());
+        Set<Long> idBlocks = ids.stream()
+            .map(id -> (id - 1) / Book.ID_ALLOCATION_SIZE)
+            .collect(Collectors.toSet());
+        assertEquals((BOOKS + Book.ID_ALLOCATION_SIZE - 1) / Book.ID_ALLOCATION_SIZE, idBlocks.size());
+    }
+
+    @Test
+    void whenInsertRegisteredBooks_ThenOnlyTheNewOnesAreReturned() {
+        BookBatchImportService.insertMissing(jdbcTemplate, books(0, BOOKS), BATCH_SIZE);
+        List<Book> books = books(BOOKS / 2, BOOKS * 3 / 2);
+
+        Set<String> insertedIsbns = BookBatchImportService.insertMissing(jdbcTemplate, books, BATCH_SIZE);
+
+        assertEquals(isbns(books(BOOKS, BOOKS * 3 / 2)), insertedIsbns);
+        assertEquals(Integer.valueOf(BOOKS * 3 / 2), jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM book WHERE isbn LIKE ?", Integer.class, isbnPrefix + "%"));
+    }
+
+    @Test
+    void whenHibernatePersistsAfterInsert_ThenIdsDoNotCollide() {
+        BookBatchImportService.insertMissing(jdbcTemplate, books(0, BOOKS), BATCH_SIZE);
+        Book book = MockTestEntities.mockNewBook();
+        book.setIsbn(isbnPrefix + "999999");
+
+        Long id = bookRepository.save(book).getId();
+
+        assertFalse(jdbcTemplate.queryForList(SELECT_IDS, Long.class, isbnPrefix + "0%").contains(id));
+    }
+
+    private List<Book> books(int from, int to) {
+        List<Book> books = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            Book book = MockTestEntities.mockNewBook();
+            book.setIsbn(isbnPrefix + String.format("%06d", i));
+            books.add(book);
+        }
+        return books;
+    }
+
+    private static Set<String> isbns(List<Book> books) {
+        return books.stream().map(Book::getIsbn).collect(Collectors.toSet());
+    }
+}
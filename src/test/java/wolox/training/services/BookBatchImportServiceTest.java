@@ -0,0 +1,107 @@
+package wolox.training.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import wolox.training.models.BookDTO;
+import wolox.training.models.BookImportResult;
+import wolox.training.models.BookImportResult.Status;
+import wolox.training.repositories.BookRepository;
+import wolox.training.util.MockTestEntities;
+
+/**
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+class BookBatchImportServiceTest {
+
+    private static final String NEW_ISBN = "0385472579";
+    private static final String REGISTERED_ISBN = "9780099590088";
+    private static final String UNKNOWN_ISBN = "077";
+
+    private BookRepository bookRepository;
+    private OpenLibraryService openLibraryService;
+    private JdbcTemplate jdbcTemplate;
+    private Cache cache;
+    private BookBatchImportService bookBatchImportService;
+
+    @BeforeEach
+    void setup() {
+        bookRepository = mock(BookRepository.class);
+        openLibraryService = mock(OpenLibraryService.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        cache = mock(Cache.class);
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        javax.persistence.Cache jpaCache = mock(javax.persistence.Cache.class);
+        when(entityManagerFactory.getCache()).thenReturn(jpaCache);
+        when(jpaCache.unwrap(Cache.class)).thenReturn(cache);
+        bookBatchImportService = new BookBatchImportService(bookRepository, openLibraryService, jdbcTemplate,
+            mock(PlatformTransactionManager.class), entityManagerFactory);
+        ReflectionTestUtils.setField(bookBatchImportService, "batchSize", 500);
+    }
+
+    @Test
+    void whenImportIsbns_ThenReturnStatusOfEveryDistinctIsbnInOrder() {
+        Map<String, BookDTO> foundBooks = new HashMap<>();
+        foundBooks.put(NEW_ISBN, MockTestEntities.mockBookDTO());
+
+        when(bookRepository.findIsbnsByIsbnIn(any())).thenReturn(Collections.singleton(REGISTERED_ISBN));
+        when(openLibraryService.booksInfo(Arrays.asList(NEW_ISBN, UNKNOWN_ISBN))).thenReturn(foundBooks);
+        MockBookInserts.mockBookInserts(jdbcTemplate, isbn -> true);
+
+        List<BookImportResult> results = bookBatchImportService.importByIsbns(
+            Arrays.asList(NEW_ISBN, REGISTERED_ISBN, UNKNOWN_ISBN, NEW_ISBN));
+
+        assertEquals(3, results.size());
+        assertEquals(NEW_ISBN, results.get(0).getIsbn());
+        assertEquals(Status.IMPORTED, results.get(0).getStatus());
+        assertEquals(Status.ALREADY_EXISTS, results.get(1).getStatus());
+        assertEquals(Status.NOT_FOUND, results.get(2).getStatus());
+        verify(cache).evictQueryRegions();
+    }
+
+    @Test
+    void whenBookIsRegisteredConcurrently_ThenReturnAlreadyExists() {
+        Map<String, BookDTO> foundBooks = new HashMap<>();
+        foundBooks.put(NEW_ISBN, MockTestEntities.mockBookDTO());
+
+        when(bookRepository.findIsbnsByIsbnIn(any())).thenReturn(Collections.emptySet());
+        when(openLibraryService.booksInfo(Collections.singletonList(NEW_ISBN))).thenReturn(foundBooks);
+        MockBookInserts.mockBookInserts(jdbcTemplate, isbn -> false);
+
+        List<BookImportResult> results = bookBatchImportService.importByIsbns(Collections.singletonList(NEW_ISBN));
+
+        assertEquals(Status.ALREADY_EXISTS, results.get(0).getStatus());
+    }
+
+    @Test
+    void whenBookInfoIsIncomplete_ThenReturnInvalid() {
+        BookDTO incompleteBook = MockTestEntities.mockBookDTO();
+        incompleteBook.setAuthor(null);
+        Map<String, BookDTO> foundBooks = new HashMap<>();
+        foundBooks.put(NEW_ISBN, incompleteBook);
+
+        when(bookRepository.findIsbnsByIsbnIn(any())).thenReturn(Collections.emptySet());
+        when(openLibraryService.booksInfo(Collections.singletonList(NEW_ISBN))).thenReturn(foundBooks);
+
+        List<BookImportResult> results = bookBatchImportService.importByIsbns(Collections.singletonList(NEW_ISBN));
+
+        assertEquals(Status.INVALID, results.get(0).getStatus());
+    }
+}
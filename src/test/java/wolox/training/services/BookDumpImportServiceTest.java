@@ -0,0 +1,207 @@
+package wolox.training.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import wolox.training.models.DumpImportProgress;
+
+/**
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+class BookDumpImportServiceTest {
+
+    private static final String BROKEN_ISBN = "9780000000000";
+    private static final String FATAL_ISBN = "9780000000001";
+
+    @TempDir
+    Path directory;
+
+    private Cache cache;
+    private List<String> insertedIsbns;
+    private Set<String> storedIsbns;
+    private List<DumpImportProgress> reports;
+    private BookDumpImportService bookDumpImportService;
+
+    @BeforeEach
+    void setup() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        cache = mock(Cache.class);
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        javax.persistence.Cache jpaCache = mock(javax.persistence.Cache.class);
+        when(entityManagerFactory.getCache()).thenReturn(jpaCache);
+        when(jpaCache.unwrap(Cache.class)).thenReturn(cache);
+
+        insertedIsbns = Collections.synchronizedList(new ArrayList<>());
+        reports = Collections.synchronizedList(new ArrayList<>());
+        storedIsbns = Collections.synchronizedSet(new HashSet<>());
+        MockBookInserts.mockBookInserts(jdbcTemplate, isbn -> {
+            if (BROKEN_ISBN.equals(isbn)) {
+                throw new DataAccessResourceFailureException("Connection lost");
+            }
+            if (FATAL_ISBN.equals(isbn)) {
+                throw new OutOfMemoryError("Java heap space");
+            }
+            insertedIsbns.add(isbn);
+            return storedIsbns.add(isbn);
+        });
+
+        bookDumpImportService = new BookDumpImportService(new ObjectMapper(), jdbcTemplate,
+            mock(PlatformTransactionManager.class), entityManagerFactory, 3, 2, 2, 0);
+    }
+
+    @Test
+    void whenImportGzipDump_ThenValidRecordsAreInsertedAndInvalidOnesCounted() throws IOException {
+        List<String> lines = new ArrayList<>(records(1, 10));
+        lines.add(4, "{\"isbn_13\": [\"9780000000011\"], \"title\": \"Without subtitle\"}");
+        lines.add(7, "{not json");
+        lines.add(9, "");
+        Path dump = writeGzip("editions.txt.gz", lines);
+
+        DumpImportProgress progress = bookDumpImportService.importDump(dump, 0, reports::add);
+
+        assertEquals(10, progress.getImportedRecords());
+        assertEquals(2, progress.getInvalidRecords());
+        assertEquals(12, progress.getReadRecords());
+        assertEquals(uncompressedSize(lines), progress.getOffset());
+        assertEquals(10, insertedIsbns.size());
+        verify(cache).evictQueryRegions();
+    }
+
+    @Test
+    void whenResumeFromOffset_ThenOnlyTheFollowingRecordsAreImported() throws IOException {
+        List<String> lines = records(1, 6);
+        long offset = uncompressedSize(lines.subList(0, 4));
+
+        bookDumpImportService.importDump(writePlain("editions.txt", lines), offset, reports::add);
+        bookDumpImportService.importDump(writeGzip("editions.txt.gz", lines), offset, reports::add);
+
+        assertEquals(Arrays.asList(isbn(5), isbn(6), isbn(5), isbn(6)), insertedIsbns);
+    }
+
+    @Test
+    void whenResumeOverImportedRecords_ThenOnlyNewBooksAreCountedAsImported() throws IOException {
+        List<String> lines = records(1, 6);
+        Path dump = writeGzip("editions.txt.gz", lines);
+
+        bookDumpImportService.importDump(dump, 0, reports::add);
+        DumpImportProgress progress = bookDumpImportService.importDump(dump, uncompressedSize(lines.subList(0, 2)),
+            reports::add);
+
+        assertEquals(4, progress.getReadRecords());
+        assertEquals(0, progress.getImportedRecords());
+        assertEquals(6, storedIsbns.size());
+    }
+
+    @Test
+    void whenProgressIsReported_ThenOffsetNeverGoesBackwards() throws IOException {
+        List<String> lines = records(1, 30);
+
+        bookDumpImportService.importDump(writeGzip("editions.txt.gz", lines), 0, reports::add);
+
+        long previousOffset = 0;
+        for (DumpImportProgress report : reports) {
+            assertTrue(report.getOffset() >= previousOffset);
+            previousOffset = report.getOffset();
+        }
+        assertEquals(uncompressedSize(lines), previousOffset);
+        assertEquals(30, insertedIsbns.size());
+    }
+
+    @Test
+    void whenInsertFails_ThenThrowExceptionAndOffsetStaysBeforeTheFailedChunk() throws IOException {
+        List<String> lines = new ArrayList<>(records(1, 12));
+        lines.set(1, record(BROKEN_ISBN));
+        Path dump = writeGzip("editions.txt.gz", lines);
+
+        assertThrows(DataAccessResourceFailureException.class,
+            () -> bookDumpImportService.importDump(dump, 0, reports::add));
+
+        assertEquals(0, reports.get(reports.size() - 1).getOffset());
+    }
+
+    @Test
+    void whenWorkersFailWithError_ThenThrowErrorWithoutBlockingTheReader() throws IOException {
+        List<String> lines = new ArrayList<>(records(1, 60));
+        lines.set(0, record(FATAL_ISBN));
+        lines.set(3, record(FATAL_ISBN));
+        Path dump = writeGzip("editions.txt.gz", lines);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertThrows(OutOfMemoryError.class,
+            () -> bookDumpImportService.importDump(dump, 0, reports::add)));
+
+        assertEquals(0, reports.get(reports.size() - 1).getOffset());
+    }
+
+    private static List<String> records(int from, int to) {
+        List<String> records = new ArrayList<>();
+        for (int i = from; i <= to; i++) {
+            records.add(record(isbn(i)));
+        }
+        return records;
+    }
+
+    private static String isbn(int number) {
+        return String.format("9781%09d", number);
+    }
+
+    private static String record(String isbn) {
+        return "{\"isbn_13\": [\"" + isbn + "\"], \"title\": \"Zen speaks\", \"subtitle\": \"shouts of nothingness\", "
+            + "\"publishers\": [\"Anchor Books\"], \"number_of_pages\": 159, \"publish_date\": \"1994\", "
+            + "\"by_statement\": \"Zhizhong Cai\"}";
+    }
+
+    private static long uncompressedSize(List<String> lines) {
+        return lines.stream().mapToLong(line -> line.getBytes(StandardCharsets.UTF_8).length + 1).sum();
+    }
+
+    private Path writePlain(String fileName, List<String> lines) throws IOException {
+        Path dump = directory.resolve(fileName);
+        try (OutputStream output = Files.newOutputStream(dump)) {
+            write(output, lines);
+        }
+        return dump;
+    }
+
+    private Path writeGzip(String fileName, List<String> lines) throws IOException {
+        Path dump = directory.resolve(fileName);
+        try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(dump))) {
+            write(output, lines);
+        }
+        return dump;
+    }
+
+    private static void write(OutputStream output, List<String> lines) throws IOException {
+        for (String line : lines) {
+            output.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package wolox.training.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.util.StreamUtils;
+import wolox.training.models.Book;
+import wolox.training.models.BookExportFormat;
+import wolox.training.repositories.BookRepository;
+import wolox.training.util.MockTestEntities;
+
+/**
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@DataJpaTest
+@Import({BookExportService.class, JacksonAutoConfiguration.class})
+class BookExportServiceTest {
+
+    @Autowired
+    private BookExportService bookExportService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Book homoDeus;
+    private Book sapiens;
+
+    @BeforeEach
+    void setup() {
+        homoDeus = bookRepository.saveAndFlush(MockTestEntities.mockNewBook());
+        sapiens = MockTestEntities.mockNewBook();
+        sapiens.setTitle("Sapiens, \"A Brief History\"");
+        sapiens.setIsbn("9780062316097");
+        sapiens.setGenre(null);
+        sapiens = bookRepository.saveAndFlush(sapiens);
+    }
+
+    @Test
+    void whenExportCsv_ThenWriteHeaderAndEscapedRows() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long rows = bookExportService.writeAll(BookExportFormat.CSV, false, output);
+
+        String[] lines = new String(output.toByteArray(), StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, rows);
+        assertEquals(3, lines.length);
+        assertEquals("id,isbn,title,subtitle,author,publisher,genre,year,pages,image", lines[0]);
+        assertEquals(homoDeus.getId() + ",9780099590088,Homo Deus,A Brief History of tomorrow,Yuval Noah Harari,"
+            + "DEBATE,Natural History,2016,496,deus.jpg", lines[1]);
+        assertEquals(sapiens.getId() + ",9780062316097,\"Sapiens, \"\"A Brief History\"\"\","
+            + "A Brief History of tomorrow,Yuval Noah Harari,DEBATE,,2016,496,deus.jpg", lines[2]);
+    }
+
+    @Test
+    void whenExportGzipNdjson_ThenWriteOneCompressedObjectPerLine() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long rows = bookExportService.writeAll(BookExportFormat.NDJSON, true, output);
+
+        String ndjson = StreamUtils.copyToString(new GZIPInputStream(new ByteArrayInputStream(output.toByteArray())),
+            StandardCharsets.UTF_8);
+        String[] lines = ndjson.split("\n");
+        assertEquals(2, rows);
+        assertEquals(2, lines.length);
+        assertTrue(ndjson.endsWith("\n"));
+
+        JsonNode first = objectMapper.readTree(lines[0]);
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertEquals(homoDeus.getId().longValue(), first.get("id").asLong());
+        assertEquals("9780099590088", first.get("isbn").asText());
+        assertFalse(first.has("users"));
+        assertEquals("Sapiens, \"A Brief History\"", second.get("title").asText());
+        assertTrue(second.get("genre").isNull());
+    }
+}
@@ -0,0 +1,128 @@
+package wolox.training.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import wolox.training.exceptions.BookNotFoundException;
+import wolox.training.models.Book;
+import wolox.training.models.BookDTO;
+import wolox.training.repositories.BookRepository;
+import wolox.training.util.MockTestEntities;
+import wolox.training.utils.CompletableFutures;
+
+/**
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+class BookImportServiceTest {
+
+    private static final String ISBN = "0385472579";
+    private static final int CONCURRENT_REQUESTS = 8;
+
+    private BookRepository bookRepository;
+    private OpenLibraryService openLibraryService;
+    private BookImportService bookImportService;
+
+    @BeforeEach
+    void setup() {
+        bookRepository = mock(BookRepository.class);
+        openLibraryService = mock(OpenLibraryService.class);
+        bookImportService = new BookImportService(bookRepository, openLibraryService, Runnable::run);
+        when(bookRepository.findByIsbn(ISBN)).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void whenImportSameIsbnConcurrently_ThenRemoteApiAndRepositoryAreCalledOnce() throws Exception {
+        Book persistedBook = MockTestEntities.mockPersistedOpenLibraryBook();
+        AtomicReference<Book> savedBook = new AtomicReference<>();
+        CountDownLatch remoteCallStarted = new CountDownLatch(1);
+        CountDownLatch releaseRemoteCall = new CountDownLatch(1);
+
+        when(openLibraryService.bookInfoAsync(ISBN)).then(invocation -> {
+            remoteCallStarted.countDown();
+            releaseRemoteCall.await(5, TimeUnit.SECONDS);
+            return CompletableFuture.completedFuture(MockTestEntities.mockBookDTO());
+        });
+        when(bookRepository.save(any())).then(invocation -> {
+            savedBook.set(persistedBook);
+            return persistedBook;
+        });
+        when(bookRepository.findByIsbn(ISBN)).then(invocation -> Optional.ofNullable(savedBook.get()));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Book> firstResult = executor.submit(() -> bookImportService.importByIsbn(ISBN));
+        remoteCallStarted.await(5, TimeUnit.SECONDS);
+        // The first import is registered before the remote call starts, so the next ones join it
+        List<CompletableFuture<Book>> results = new ArrayList<>();
+        for (int i = 1; i < CONCURRENT_REQUESTS; i++) {
+            results.add(bookImportService.importByIsbnAsync(ISBN));
+        }
+        releaseRemoteCall.countDown();
+
+        assertEquals(persistedBook, firstResult.get(5, TimeUnit.SECONDS));
+        for (CompletableFuture<Book> result : results) {
+            assertEquals(persistedBook, result.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        verify(openLibraryService, times(1)).bookInfoAsync(ISBN);
+        verify(bookRepository, times(1)).save(any());
+    }
+
+    @Test
+    void whenImportAsync_ThenBookIsPersistedWhenRemoteResponseArrives() throws Exception {
+        Book persistedBook = MockTestEntities.mockPersistedOpenLibraryBook();
+        CompletableFuture<BookDTO> remoteResponse = new CompletableFuture<>();
+        when(openLibraryService.bookInfoAsync(ISBN)).thenReturn(remoteResponse);
+        when(bookRepository.save(any())).thenReturn(persistedBook);
+
+        CompletableFuture<Book> importFuture = bookImportService.importByIsbnAsync(ISBN);
+
+        assertFalse(importFuture.isDone());
+        assertSame(importFuture, bookImportService.importByIsbnAsync(ISBN));
+        verify(bookRepository, never()).save(any());
+
+        remoteResponse.complete(MockTestEntities.mockBookDTO());
+
+        assertEquals(persistedBook, importFuture.join());
+        verify(bookRepository, times(1)).save(any());
+    }
+
+    @Test
+    void whenImportPersistedIsbn_ThenRemoteApiIsNotCalled() throws Exception {
+        Book persistedBook = MockTestEntities.mockPersistedOpenLibraryBook();
+        when(bookRepository.findByIsbn(ISBN)).thenReturn(Optional.of(persistedBook));
+
+        assertEquals(persistedBook, bookImportService.importByIsbn(ISBN));
+        verify(openLibraryService, never()).bookInfoAsync(any());
+    }
+
+    @Test
+    void whenImportNoExistentIsbn_ThenThrowException() {
+        when(openLibraryService.bookInfoAsync(ISBN))
+            .thenReturn(CompletableFutures.failed(new BookNotFoundException(ISBN)));
+
+        assertThrows(BookNotFoundException.class, () -> bookImportService.importByIsbn(ISBN));
+    }
+}
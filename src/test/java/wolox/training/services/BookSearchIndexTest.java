@@ -0,0 +1,121 @@
+package wolox.training.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import wolox.training.models.Book;
+import wolox.training.repositories.BookRepository;
+import wolox.training.util.MockTestEntities;
+
+/**
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+class BookSearchIndexTest {
+
+    private Book sapiens;
+    private Book homoDeus;
+    private Book history;
+    private BookSearchIndex bookSearchIndex;
+
+    @BeforeEach
+    void setup() {
+        sapiens = MockTestEntities.mockPersistedBook();
+        homoDeus = mockBook(2L, "Homo Deus", "Yuval Noah Harari", "A Brief History of Tomorrow");
+        history = mockBook(3L, "A Short History of Nearly Everything", "Bill Bryson", "Science for everyone");
+
+        Map<Long, Book> books = Arrays.asList(sapiens, homoDeus, history).stream()
+            .collect(Collectors.toMap(Book::getId, Function.identity()));
+        BookRepository bookRepository = mock(BookRepository.class);
+        when(bookRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            return StreamSupport.stream(ids.spliterator(), false)
+                .map(books::get)
+                .collect(Collectors.toList());
+        });
+
+        bookSearchIndex = new BookSearchIndex(bookRepository);
+        bookSearchIndex.indexAll(books.values());
+    }
+
+    @Test
+    void whenSearchAllWords_ThenReturnOnlyBooksMatchingEveryWord() {
+        Page<Book> books = bookSearchIndex.search("harari history", PageRequest.of(0, 10));
+
+        assertEquals(2, books.getTotalElements());
+        assertTrue(books.getContent().containsAll(Arrays.asList(sapiens, homoDeus)));
+    }
+
+    @Test
+    void whenSearchWordPrefix_ThenReturnMatchingBooks() {
+        Page<Book> books = bookSearchIndex.search("Sapi", PageRequest.of(0, 10));
+
+        assertEquals(1, books.getTotalElements());
+        assertEquals(sapiens, books.getContent().get(0));
+    }
+
+    @Test
+    void whenSearchWordInTitleAndSubtitle_ThenTitleMatchesAreRankedFirst() {
+        Page<Book> books = bookSearchIndex.search("history", PageRequest.of(0, 10));
+
+        assertEquals(3, books.getTotalElements());
+        assertEquals(history, books.getContent().get(0));
+    }
+
+    @Test
+    void whenSearchSecondPage_ThenReturnRemainingBooks() {
+        List<Book> firstPage = bookSearchIndex.search("history", PageRequest.of(0, 2)).getContent();
+        Page<Book> secondPage = bookSearchIndex.search("history", PageRequest.of(1, 2));
+
+        assertEquals(2, firstPage.size());
+        assertEquals(1, secondPage.getContent().size());
+        assertEquals(3, secondPage.getTotalElements());
+    }
+
+    @Test
+    void whenBookIsUpdatedOrDeleted_ThenIndexIsUpdated() {
+        homoDeus.setTitle("Homo Sapiens");
+        bookSearchIndex.index(homoDeus);
+        bookSearchIndex.delete(sapiens.getId());
+
+        assertEquals(0, bookSearchIndex.search("deus", PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(homoDeus, bookSearchIndex.search("sapiens", PageRequest.of(0, 10)).getContent().get(0));
+        assertEquals(2, bookSearchIndex.size());
+    }
+
+    @Test
+    void whenSearchBlankOrUnknownWords_ThenReturnEmptyPage() {
+        assertEquals(0, bookSearchIndex.search("  ", PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(0, bookSearchIndex.search("tolkien", PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void whenTokenize_ThenWordsAreNormalized() {
+        assertEquals(Arrays.asList("cien", "anos", "de", "soledad"),
+            BookSearchIndex.tokenize("Cien Años de-Soledad!"));
+    }
+
+    private static Book mockBook(Long id, String title, String author, String subtitle) {
+        Book book = MockTestEntities.mockNewBook();
+        ReflectionTestUtils.setField(book, "id", id);
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setSubtitle(subtitle);
+        return book;
+    }
+}
@@ -0,0 +1,86 @@
+package wolox.training.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.persistence.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import wolox.training.models.Book;
+import wolox.training.repositories.BookRepository;
+import wolox.training.util.MockTestEntities;
+
+/**
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+@DataJpaTest
+@Import({BookStreamingService.class, JacksonAutoConfiguration.class})
+class BookStreamingServiceTest {
+
+    private static final int BOOKS = 1200;
+
+    @Autowired
+    private BookStreamingService bookStreamingService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setup() {
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = MockTestEntities.mockNewBook();
+            book.setIsbn(String.format("978%010d", i));
+            bookRepository.save(book);
+        }
+        bookRepository.flush();
+    }
+
+    @Test
+    void whenStreamAllBooks_ThenWriteJsonArrayFlushingInBatches() throws IOException {
+        AtomicInteger flushes = new AtomicInteger();
+        ByteArrayOutputStream output = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+
+        long written = bookStreamingService.writeAll(output);
+
+        JsonNode books = objectMapper.readTree(output.toByteArray());
+        assertEquals(BOOKS, written);
+        assertTrue(books.isArray());
+        assertEquals(BOOKS, books.size());
+        assertEquals("9780000000000", books.get(0).get("isbn").asText());
+        assertTrue(flushes.get() < BOOKS / 100, "Flushed " + flushes.get() + " times");
+    }
+
+    @Test
+    void whenStreamAllBooks_ThenBooksAreNotPutInSecondLevelCache() throws IOException {
+        List<Book> books = bookRepository.findAll();
+        entityManager.clear();
+        Cache cache = entityManager.getEntityManager().getEntityManagerFactory().getCache();
+        cache.evictAll();
+
+        bookStreamingService.writeAll(new ByteArrayOutputStream());
+
+        assertFalse(books.stream().anyMatch(book -> cache.contains(Book.class, book.getId())));
+    }
+}
@@ -0,0 +1,88 @@
+package wolox.training.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import wolox.training.models.Book;
+import wolox.training.models.BookSuggestion;
+import wolox.training.models.BookSuggestion.Type;
+import wolox.training.repositories.BookRepository;
+import wolox.training.util.MockTestEntities;
+
+/**
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+class BookSuggestionServiceTest {
+
+    private Book sapiens;
+    private Book homoDeus;
+    private BookSuggestionService bookSuggestionService;
+
+    @BeforeEach
+    void setup() {
+        sapiens = MockTestEntities.mockPersistedBook();
+        homoDeus = MockTestEntities.mockNewBook();
+        ReflectionTestUtils.setField(homoDeus, "id", 2L);
+
+        bookSuggestionService = new BookSuggestionService(mock(BookRepository.class), 1000, 10);
+        bookSuggestionService.index(sapiens);
+        bookSuggestionService.index(homoDeus);
+    }
+
+    @Test
+    void whenSuggestPrefix_ThenReturnAuthorsWithMoreBooksFirst() {
+        bookSuggestionService.index(mockBook(3L, "Yoga for everyone", "Ana Perez"));
+
+        List<BookSuggestion> suggestions = bookSuggestionService.suggest("y", 10);
+
+        assertEquals(2, suggestions.size());
+        assertEquals("Yuval Noah Harari", suggestions.get(0).getText());
+        assertEquals(Type.AUTHOR, suggestions.get(0).getType());
+        assertEquals(2, suggestions.get(0).getBooks());
+        assertEquals("Yoga for everyone", suggestions.get(1).getText());
+        assertEquals(Type.TITLE, suggestions.get(1).getType());
+    }
+
+    @Test
+    void whenSuggestWithLimit_ThenReturnAtMostLimit() {
+        assertEquals(1, bookSuggestionService.suggest("", 1).size());
+    }
+
+    @Test
+    void whenBookIsUpdatedOrDeleted_ThenSuggestionsAreUpdated() {
+        homoDeus.setTitle("Nexus");
+        bookSuggestionService.index(homoDeus);
+        bookSuggestionService.delete(sapiens.getId());
+
+        assertTrue(bookSuggestionService.suggest("homo", 10).isEmpty());
+        assertTrue(bookSuggestionService.suggest("sapiens", 10).isEmpty());
+        assertEquals(1, bookSuggestionService.suggest("yuval", 10).get(0).getBooks());
+        assertEquals("Nexus", bookSuggestionService.suggest("nex", 10).get(0).getText());
+    }
+
+    @Test
+    void whenNodeBudgetIsSpent_ThenSuggestionsAreDropped() {
+        BookSuggestionService smallService = new BookSuggestionService(mock(BookRepository.class), 12, 10);
+
+        smallService.index(sapiens);
+
+        assertEquals(1, smallService.getDroppedSuggestions());
+        assertEquals("Sapiens", smallService.suggest("sap", 10).get(0).getText());
+        assertTrue(smallService.getNodeCount() <= 12);
+    }
+
+    private static Book mockBook(Long id, String title, String author) {
+        Book book = MockTestEntities.mockNewBook();
+        ReflectionTestUtils.setField(book, "id", id);
+        book.setTitle(title);
+        book.setAuthor(author);
+        return book;
+    }
+}
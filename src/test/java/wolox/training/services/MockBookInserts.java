@@ -0,0 +1,77 @@
+package wolox.training.services;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import wolox.training.models.Book;
+
+/**
+ * Answer the book inserts of a mocked {@link JdbcTemplate} like PostgreSQL does with INSERT ... ON CONFLICT DO NOTHING
+ * RETURNING isbn: only the ISBNs of the inserted rows are returned. The reserved ids come from a fake book sequence
+ *
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+final class MockBookInserts {
+
+    private static final int BOOK_PARAMETERS = 10;
+    private static final int ISBN_PARAMETER = 5;
+    private static final Pattern SERIES_SIZE = Pattern.compile("generate_series\\(1, (\\d+)\\)");
+
+    private MockBookInserts() {
+    }
+
+    /**
+     * @param jdbcTemplate mock to answer
+     * @param insert       decides if the book of an ISBN is inserted or skipped as already registered, it can throw
+     *                     to fail the statement
+     */
+    @SuppressWarnings("unchecked")
+    static void mockBookInserts(JdbcTemplate jdbcTemplate, Predicate<String> insert) {
+        AtomicLong sequence = new AtomicLong(1);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class))).thenAnswer(invocation -> {
+            Matcher matcher = SERIES_SIZE.matcher(invocation.getArgument(0));
+            int values = matcher.find() ? Integer.parseInt(matcher.group(1)) : 0;
+            return LongStream.range(0, values)
+                .mapToObj(value -> sequence.getAndAdd(Book.ID_ALLOCATION_SIZE))
+                .collect(Collectors.toList());
+        });
+        when(jdbcTemplate.query(anyString(), any(PreparedStatementSetter.class), any(RowMapper.class)))
+            .thenAnswer(invocation -> boundIsbns(invocation.getArgument(1)).stream()
+                .filter(insert)
+                .collect(Collectors.toList()));
+    }
+
+    private static List<String> boundIsbns(PreparedStatementSetter setter) throws Exception {
+        List<String> isbns = new ArrayList<>();
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        doAnswer(invocation -> {
+            int index = invocation.getArgument(0);
+            if ((index - 1) % BOOK_PARAMETERS == ISBN_PARAMETER - 1) {
+                isbns.add(invocation.getArgument(1));
+            }
+            return null;
+        }).when(preparedStatement).setString(anyInt(), any());
+
+        setter.setValues(preparedStatement);
+        return isbns;
+    }
+}
@@ -0,0 +1,67 @@
+package wolox.training.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+import wolox.training.models.Book;
+import wolox.training.models.BookDTO;
+
+/**
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+class OpenLibraryDumpRecordParserTest {
+
+    private static final String EDITION = "{\"isbn_10\": [\"0385472579\"], \"isbn_13\": [\"9780385472579\"], "
+        + "\"title\": \"Zen speaks\", \"subtitle\": \"shouts of nothingness\", \"publishers\": [\"Anchor Books\"], "
+        + "\"number_of_pages\": 159, \"publish_date\": \"March 1994\", "
+        + "\"authors\": [{\"key\": \"/authors/OL223368A\"}], \"by_statement\": \"Zhizhong Cai\", "
+        + "\"identifiers\": {\"goodreads\": [\"979250\"]}, \"covers\": [240726]}";
+
+    private final OpenLibraryDumpRecordParser parser = new OpenLibraryDumpRecordParser(new JsonFactory());
+
+    @Test
+    void whenParseEditionRecord_ThenReturnTheBookFields() throws IOException {
+        BookDTO bookDTO = parser.parse(EDITION);
+
+        assertEquals("9780385472579", bookDTO.getIsbn());
+        assertEquals("Zen speaks", bookDTO.getTitle());
+        assertEquals("shouts of nothingness", bookDTO.getSubtitle());
+        assertEquals("Anchor Books", bookDTO.getPublisher());
+        assertEquals("159", bookDTO.getPageNumber());
+        assertEquals("1994", bookDTO.getPublishDate());
+        assertEquals("Zhizhong Cai", bookDTO.getAuthor());
+
+        Book book = bookDTO.toBook();
+        assertEquals("9780385472579", book.getIsbn());
+    }
+
+    @Test
+    void whenParseDumpLineWithColumns_ThenOnlyTheJsonColumnIsParsed() throws IOException {
+        BookDTO bookDTO = parser.parse("/type/edition\t/books/OL1397864M\t4\t2010-04-13T03:09:23.813373\t" + EDITION);
+
+        assertEquals("Zen speaks", bookDTO.getTitle());
+    }
+
+    @Test
+    void whenParseRecordWithNamedAuthorsAndIsbn10Only_ThenUseThem() throws IOException {
+        BookDTO bookDTO = parser.parse("{\"isbn_10\": [\"0385472579\", \"0385472587\"], "
+            + "\"authors\": [{\"name\": \"Tsai Chih Chung\"}, {\"name\": \"Other\"}], \"by_statement\": \"Unused\", "
+            + "\"publishers\": [{\"name\": \"Anchor Books\"}]}");
+
+        assertEquals("0385472579", bookDTO.getIsbn());
+        assertEquals("Tsai Chih Chung", bookDTO.getAuthor());
+        assertEquals("Anchor Books", bookDTO.getPublisher());
+        assertNull(bookDTO.getTitle());
+    }
+
+    @Test
+    void whenParseInvalidRecord_ThenThrowException() {
+        assertThrows(IOException.class, () -> parser.parse("{\"title\": "));
+    }
+}
@@ -0,0 +1,77 @@
+package wolox.training.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import wolox.training.models.BookDTO;
+import wolox.training.util.MockTestEntities;
+
+/**
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+class OpenLibraryResponseParserTest {
+
+    private final OpenLibraryResponseParser parser = new OpenLibraryResponseParser(new JsonFactory());
+
+    @Test
+    void whenParseBookResponse_ThenReturnOnlyTheNeededFields() throws IOException {
+        Map<String, BookDTO> books = parser.parse(body(MockTestEntities.mockOpenLibraryResponse()));
+
+        assertEquals(1, books.size());
+        assertEquals(MockTestEntities.mockBookDTO(), books.get("0385472579"));
+    }
+
+    @Test
+    void whenParseEmptyResponseOrEmptyBook_ThenReturnNoBooks() throws IOException {
+        assertTrue(parser.parse(body("{}")).isEmpty());
+        assertTrue(parser.parse(body("{\"ISBN:077\": {}}")).isEmpty());
+        assertTrue(parser.parse(body("")).isEmpty());
+    }
+
+    @Test
+    void whenParseSeveralBooks_ThenReturnThemByIsbn() throws IOException {
+        Map<String, BookDTO> books = parser.parse(body("{"
+            + "\"ISBN:1\": {\"title\": \"One\", \"authors\": [{\"url\": \"a\"}, {\"name\": \"First\"}]},"
+            + "\"ISBN:2\": {\"title\": \"Two\", \"number_of_pages\": \"12\", \"publishers\": []}"
+            + "}"));
+
+        assertEquals(2, books.size());
+        assertEquals("One", books.get("1").getTitle());
+        assertEquals("First", books.get("1").getAuthor());
+        assertEquals("12", books.get("2").getPageNumber());
+        assertNull(books.get("2").getPublisher());
+    }
+
+    @Test
+    void whenParseUnexpectedShapes_ThenTheyAreSkipped() throws IOException {
+        Map<String, BookDTO> books = parser.parse(body("{"
+            + "\"details\": {\"ISBN:1\": {\"title\": \"Nested\"}},"
+            + "\"ISBN:2\": {\"title\": {\"value\": \"Object\"}, \"publishers\": \"Text\", \"subtitle\": \"Kept\"}"
+            + "}"));
+
+        assertEquals(1, books.size());
+        assertNull(books.get("2").getTitle());
+        assertNull(books.get("2").getPublisher());
+        assertEquals("Kept", books.get("2").getSubtitle());
+    }
+
+    @Test
+    void whenParseInvalidJson_ThenThrowException() {
+        assertThrows(IOException.class, () -> parser.parse(body("{\"ISBN:1\": {\"title\": ")));
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
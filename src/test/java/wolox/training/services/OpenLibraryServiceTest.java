@@ -2,13 +2,25 @@ package wolox.training.services;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.http.Fault;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,23 +33,52 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import wolox.training.config.OpenLibraryConfig;
 import wolox.training.exceptions.BookNotFoundException;
+import wolox.training.exceptions.OpenLibraryUnavailableException;
 import wolox.training.models.BookDTO;
+import wolox.training.utils.CircuitBreaker;
+import wolox.training.utils.CircuitBreaker.State;
 
 @ExtendWith(SpringExtension.class)
 @EnableAutoConfiguration
-@ContextConfiguration(classes = OpenLibraryService.class)
+@ContextConfiguration(classes = {OpenLibraryService.class, OpenLibraryConfig.class})
 @TestPropertySource("classpath:application.properties")
 class OpenLibraryServiceTest {
 
     private static final String PATH = "/api/";
+    private static final String SLOW_BOOK_API_SUBPATH = "books?bibkeys=ISBN:111&format=json&jscmd=data";
+    private static final String BROKEN_BOOK_API_SUBPATH = "books?bibkeys=ISBN:222&format=json&jscmd=data";
+    private static final String RESET_BOOK_API_SUBPATH = "books?bibkeys=ISBN:333&format=json&jscmd=data";
+    private static final String MISSING_BOOK_API_SUBPATH = "books?bibkeys=ISBN:444&format=json&jscmd=data";
 
     @Autowired
     private OpenLibraryService openLibraryService;
+    @Autowired
+    private MeterRegistry meterRegistry;
     @Value("${successBookApiSubpath}")
     private String successBookApiSubpath;
     @Value("${failBookApiSubpath}")
     private String failedBookApiSubpath;
+    @Value("${batchBookApiSubpath}")
+    private String batchBookApiSubpath;
+    @Value("${openLibrary.http.readTimeoutMillis}")
+    private int readTimeoutMillis;
+    @Value("${openLibrary.circuitBreaker.minimumCalls}")
+    private int circuitBreakerMinimumCalls;
+    @Value("${openLibrary.batchSize}")
+    private int batchSize;
+    @Value("${openLibrary.http.maxConnections}")
+    private int maxConnections;
+    @Value("${openLibrary.bulkhead.maxConcurrentCalls}")
+    private int maxConcurrentCalls;
+    @Value("${openLibrary.http.leaseTimeoutMillis}")
+    private int leaseTimeoutMillis;
+    @Value("${openLibrary.circuitBreaker.openDurationSeconds}")
+    private long circuitBreakerOpenDurationSeconds;
+    @Value("${openLibrary.circuitBreaker.halfOpenCalls}")
+    private int circuitBreakerHalfOpenCalls;
 
     private WireMockServer wireMockServer;
 
@@ -55,6 +96,29 @@ class OpenLibraryServiceTest {
             .willReturn(aResponse().withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 .withStatus(200)
                 .withBody("{}")));
+
+        wireMockServer.stubFor(get(urlEqualTo(PATH + batchBookApiSubpath))
+            .willReturn(aResponse().withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .withStatus(200)
+                .withBodyFile("zen_speaks.json")));
+
+        wireMockServer.stubFor(get(urlEqualTo(PATH + SLOW_BOOK_API_SUBPATH))
+            .willReturn(aResponse().withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .withStatus(200)
+                .withFixedDelay(readTimeoutMillis * 2)
+                .withBody("{}")));
+
+        wireMockServer.stubFor(get(urlEqualTo(PATH + BROKEN_BOOK_API_SUBPATH))
+            .willReturn(aResponse().withStatus(500)));
+
+        wireMockServer.stubFor(get(urlEqualTo(PATH + RESET_BOOK_API_SUBPATH))
+            .willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)));
+
+        wireMockServer.stubFor(get(urlEqualTo(PATH + MISSING_BOOK_API_SUBPATH))
+            .willReturn(aResponse().withStatus(404)));
+
+        openLibraryService.clearCache();
+        openLibraryService.getCircuitBreaker().reset();
     }
 
     @AfterEach
@@ -72,8 +136,194 @@ class OpenLibraryServiceTest {
         assertEquals("1994", bookDTO.getPublishDate());
     }
 
+    @Test
+    void whenFindBookByIsbn_ThenRequestAndCacheMissAreMeasured() {
+        double successfulRequests = meterRegistry.get("openlibrary.requests").tag("outcome", "success").timer()
+            .count();
+        double cacheMisses = meterRegistry.get("openlibrary.cache.gets").tag("result", "miss").functionCounter()
+            .count();
+
+        openLibraryService.bookInfo("0385472579");
+
+        assertEquals(successfulRequests + 1,
+            meterRegistry.get("openlibrary.requests").tag("outcome", "success").timer().count());
+        assertEquals(cacheMisses + 1,
+            meterRegistry.get("openlibrary.cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
     @Test
     void whenFindNoExistentBookByIsbn_ThenThrowException() {
         assertThrows(BookNotFoundException.class, () -> openLibraryService.bookInfo("077"));
     }
+
+    @Test
+    void whenFindSameBookTwice_ThenRemoteApiIsCalledOnce() {
+        long cacheHits = openLibraryService.getCacheHits();
+        openLibraryService.bookInfo("0385472579");
+        BookDTO bookDTO = openLibraryService.bookInfo("0385472579");
+
+        assertEquals("Zen speaks", bookDTO.getTitle());
+        wireMockServer.verify(1, getRequestedFor(urlEqualTo(PATH + successBookApiSubpath)));
+        assertEquals(cacheHits + 1, openLibraryService.getCacheHits());
+    }
+
+    @Test
+    void whenFindNoExistentBookTwice_ThenNotFoundIsCached() {
+        assertThrows(BookNotFoundException.class, () -> openLibraryService.bookInfo("077"));
+        assertThrows(BookNotFoundException.class, () -> openLibraryService.bookInfo("077"));
+
+        wireMockServer.verify(1, getRequestedFor(urlEqualTo(PATH + failedBookApiSubpath)));
+    }
+
+    @Test
+    void whenFindSeveralBooksByIsbn_ThenRemoteApiIsCalledOnceAndNotFoundAreExcluded() {
+        Map<String, BookDTO> books = openLibraryService.booksInfo(Arrays.asList("0385472579", "077"));
+
+        assertEquals(1, books.size());
+        assertEquals("Zen speaks", books.get("0385472579").getTitle());
+        wireMockServer.verify(1, getRequestedFor(urlEqualTo(PATH + batchBookApiSubpath)));
+        assertThrows(BookNotFoundException.class, () -> openLibraryService.bookInfo("077"));
+        wireMockServer.verify(0, getRequestedFor(urlEqualTo(PATH + failedBookApiSubpath)));
+    }
+
+    @Test
+    void whenFindMoreChunksThanPooledConnections_ThenChunksWaitInsteadOfFailing() {
+        wireMockServer.stubFor(get(urlPathEqualTo(PATH + OpenLibraryService.BOOKS_URI_PATH))
+            .willReturn(aResponse().withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .withStatus(200)
+                .withFixedDelay(leaseTimeoutMillis)
+                .withBody("{}")));
+        int chunks = maxConcurrentCalls + maxConnections;
+        long bulkheadRejectedCalls = openLibraryService.getBulkheadRejectedCalls();
+
+        Map<String, BookDTO> books = openLibraryService.booksInfo(isbns(chunks * batchSize));
+
+        assertTrue(books.isEmpty());
+        wireMockServer.verify(chunks, getRequestedFor(urlPathEqualTo(PATH + OpenLibraryService.BOOKS_URI_PATH)));
+        assertEquals(bulkheadRejectedCalls, openLibraryService.getBulkheadRejectedCalls());
+    }
+
+    @Test
+    void whenFindBookByIsbnAsync_ThenFutureIsCompletedWithBookDTO() throws Exception {
+        CompletableFuture<BookDTO> bookDTO = openLibraryService.bookInfoAsync("0385472579");
+
+        assertEquals("Zen speaks", bookDTO.get(5, TimeUnit.SECONDS).getTitle());
+    }
+
+    @Test
+    void whenFindSameBookConcurrently_ThenRemoteApiIsCalledOnce() {
+        CompletableFuture<BookDTO> first = openLibraryService.bookInfoAsync("0385472579");
+        CompletableFuture<BookDTO> second = openLibraryService.bookInfoAsync("0385472579");
+
+        assertEquals(first.join().getTitle(), second.join().getTitle());
+        wireMockServer.verify(1, getRequestedFor(urlEqualTo(PATH + successBookApiSubpath)));
+    }
+
+    @Test
+    void whenRemoteApiIsSlowerThanReadTimeout_ThenThrowUnavailableException() {
+        assertThrows(OpenLibraryUnavailableException.class, () -> openLibraryService.bookInfo("111"));
+    }
+
+    @Test
+    void whenRemoteApiFails_ThenThrowUnavailableExceptionAndFailureIsNotCached() {
+        assertThrows(OpenLibraryUnavailableException.class, () -> openLibraryService.bookInfo("222"));
+        assertThrows(OpenLibraryUnavailableException.class, () -> openLibraryService.bookInfo("222"));
+
+        wireMockServer.verify(2, getRequestedFor(urlEqualTo(PATH + BROKEN_BOOK_API_SUBPATH)));
+    }
+
+    @Test
+    void whenRemoteApiFailsRepeatedly_ThenCircuitOpensAndNextCallsFailFast() {
+        for (int i = 0; i < circuitBreakerMinimumCalls; i++) {
+            assertThrows(OpenLibraryUnavailableException.class, () -> openLibraryService.bookInfo("333"));
+        }
+
+        assertEquals(State.OPEN, openLibraryService.getCircuitBreaker().getState());
+        assertThrows(OpenLibraryUnavailableException.class, () -> openLibraryService.bookInfo("0385472579"));
+        wireMockServer.verify(circuitBreakerMinimumCalls, getRequestedFor(urlEqualTo(PATH + RESET_BOOK_API_SUBPATH)));
+        wireMockServer.verify(0, getRequestedFor(urlEqualTo(PATH + successBookApiSubpath)));
+    }
+
+    @Test
+    void whenRemoteApiAnswersClientError_ThenCircuitStaysClosed() {
+        for (int i = 0; i < circuitBreakerMinimumCalls; i++) {
+            assertThrows(OpenLibraryUnavailableException.class, () -> openLibraryService.bookInfo("444"));
+        }
+
+        assertEquals(State.CLOSED, openLibraryService.getCircuitBreaker().getState());
+    }
+
+    @Test
+    void whenConcurrentImportsNeedMoreConnectionsThanPooled_ThenCircuitStaysClosed() {
+        wireMockServer.stubFor(get(urlPathEqualTo(PATH + OpenLibraryService.BOOKS_URI_PATH))
+            .willReturn(aResponse().withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .withStatus(200)
+                .withFixedDelay(leaseTimeoutMillis)
+                .withBody("{}")));
+        List<String> isbns = isbns(2 * maxConnections * batchSize);
+        int half = isbns.size() / 2;
+
+        CompletableFuture<Map<String, BookDTO>> first = CompletableFuture.supplyAsync(() ->
+            openLibraryService.booksInfo(isbns.subList(0, half)));
+        CompletableFuture<Map<String, BookDTO>> second = CompletableFuture.supplyAsync(() ->
+            openLibraryService.booksInfo(isbns.subList(half, isbns.size())));
+
+        assertTrue(first.join().isEmpty());
+        assertTrue(second.join().isEmpty());
+        assertEquals(State.CLOSED, openLibraryService.getCircuitBreaker().getState());
+        wireMockServer.verify(2 * maxConnections,
+            getRequestedFor(urlPathEqualTo(PATH + OpenLibraryService.BOOKS_URI_PATH)));
+    }
+
+    @Test
+    void whenCircuitIsHalfOpen_ThenImportSendsTrialChunksOneAtATime() {
+        for (int i = 0; i < circuitBreakerMinimumCalls; i++) {
+            assertThrows(OpenLibraryUnavailableException.class, () -> openLibraryService.bookInfo("333"));
+        }
+        CircuitBreaker circuitBreaker = openLibraryService.getCircuitBreaker();
+        assertEquals(State.OPEN, circuitBreaker.getState());
+        ReflectionTestUtils.setField(circuitBreaker, "openedAt",
+            System.nanoTime() - TimeUnit.SECONDS.toNanos(circuitBreakerOpenDurationSeconds));
+        wireMockServer.stubFor(get(urlPathEqualTo(PATH + OpenLibraryService.BOOKS_URI_PATH))
+            .willReturn(aResponse().withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .withStatus(200)
+                .withBody("{}")));
+        int chunks = circuitBreakerHalfOpenCalls + maxConnections;
+
+        Map<String, BookDTO> books = openLibraryService.booksInfo(isbns(chunks * batchSize));
+
+        assertTrue(books.isEmpty());
+        assertEquals(State.CLOSED, circuitBreaker.getState());
+        wireMockServer.verify(chunks, getRequestedFor(urlPathEqualTo(PATH + OpenLibraryService.BOOKS_URI_PATH)));
+    }
+
+    @Test
+    void whenRemoteApiFailsAndCachedInfoIsStale_ThenReturnStaleInfo() {
+        openLibraryService.bookInfo("0385472579");
+        long staleResponses = openLibraryService.getStaleResponses();
+        long cacheHits = openLibraryService.getCacheHits();
+        long cacheMisses = openLibraryService.getCacheMisses();
+        wireMockServer.stubFor(get(urlEqualTo(PATH + successBookApiSubpath))
+            .willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)));
+        Object cacheTtlNanos = ReflectionTestUtils.getField(openLibraryService, "cacheTtlNanos");
+        ReflectionTestUtils.setField(openLibraryService, "cacheTtlNanos", 0L);
+
+        try {
+            BookDTO bookDTO = openLibraryService.bookInfo("0385472579");
+
+            assertEquals("Zen speaks", bookDTO.getTitle());
+            assertEquals(staleResponses + 1, openLibraryService.getStaleResponses());
+            assertEquals(cacheHits, openLibraryService.getCacheHits());
+            assertEquals(cacheMisses + 1, openLibraryService.getCacheMisses());
+            wireMockServer.verify(2, getRequestedFor(urlEqualTo(PATH + successBookApiSubpath)));
+        } finally {
+            ReflectionTestUtils.setField(openLibraryService, "cacheTtlNanos", cacheTtlNanos);
+        }
+    }
+
+    private static List<String> isbns(int count) {
+        return IntStream.range(0, count)
+            .mapToObj(i -> String.format("9%012d", i))
+            .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,53 @@
+package wolox.training.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import wolox.training.models.User;
+
+/**
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+class PasswordServiceTest {
+
+    private final PasswordEncoder encoder = new BCryptPasswordEncoder(4);
+    private final PasswordService passwordService = new PasswordService(encoder);
+
+    @Test
+    void whenEncodeRawPassword_ThenIsHashed() {
+        User user = new User();
+        user.setPassword("testing");
+
+        passwordService.encodePassword(user);
+
+        assertNotEquals("testing", user.getPassword());
+        assertTrue(encoder.matches("testing", user.getPassword()));
+    }
+
+    @Test
+    void whenEncodeHashedPassword_ThenIsNotHashedAgain() {
+        String hash = encoder.encode("testing");
+        User user = new User();
+        user.setPassword(hash);
+
+        passwordService.encodePassword(user);
+
+        assertEquals(hash, user.getPassword());
+    }
+
+    @Test
+    void whenEncodeNullPassword_ThenKeepNull() {
+        User user = new User();
+
+        passwordService.encodePassword(user);
+
+        assertNull(user.getPassword());
+    }
+}
@@ -0,0 +1,74 @@
+package wolox.training.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import wolox.training.services.SuggestionTrie.Suggestion;
+
+/**
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+class SuggestionTrieTest {
+
+    private static final int UNLIMITED_NODES = Integer.MAX_VALUE;
+
+    private SuggestionTrie trie;
+
+    @BeforeEach
+    void setup() {
+        trie = new SuggestionTrie(2);
+    }
+
+    @Test
+    void whenFindTopOfPrefix_ThenReturnHeaviestSuggestionsFirst() {
+        trie.add("Sapiens", UNLIMITED_NODES);
+        trie.add("Santa Evita", UNLIMITED_NODES);
+        trie.add("Santa Evita", UNLIMITED_NODES);
+        trie.add("Salt", UNLIMITED_NODES);
+
+        assertEquals(Arrays.asList("Santa Evita", "Salt"), texts(trie.top("sa")));
+        assertEquals(Arrays.asList("Sapiens"), texts(trie.top("SAP")));
+        assertTrue(trie.top("x").isEmpty());
+    }
+
+    @Test
+    void whenFindTopIgnoringDiacritics_ThenReturnOriginalText() {
+        trie.add("Cien años de soledad", UNLIMITED_NODES);
+
+        assertEquals(Arrays.asList("Cien años de soledad"), texts(trie.top("cien anos")));
+    }
+
+    @Test
+    void whenRemoveSuggestion_ThenNextSuggestionIsPromotedAndNodesAreReleased() {
+        trie.add("Sapiens", UNLIMITED_NODES);
+        trie.add("Santa Evita", UNLIMITED_NODES);
+        int nodeCount = trie.getNodeCount();
+        trie.add("Salt", UNLIMITED_NODES);
+
+        trie.remove("Salt");
+
+        assertEquals(Arrays.asList("Santa Evita", "Sapiens"), texts(trie.top("sa")));
+        assertEquals(nodeCount, trie.getNodeCount());
+    }
+
+    @Test
+    void whenAddBeyondNodeBudget_ThenSuggestionIsNotAdded() {
+        assertFalse(trie.add("Sapiens", 3));
+        assertTrue(trie.add("Sap", 3));
+
+        assertEquals(Arrays.asList("Sap"), texts(trie.top("s")));
+        assertEquals(4, trie.getNodeCount());
+    }
+
+    private static List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::getText).collect(Collectors.toList());
+    }
+}
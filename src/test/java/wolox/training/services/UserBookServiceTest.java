@@ -0,0 +1,93 @@
+package wolox.training.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static wolox.training.util.MessageConstants.EXCEPTION_THROWN;
+import static wolox.training.util.MessageConstants.WRONG_SIZE;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import wolox.training.exceptions.UserNotFoundException;
+import wolox.training.models.BookOwnershipResult;
+import wolox.training.models.BookOwnershipResult.Status;
+import wolox.training.models.BulkBooksRequest;
+import wolox.training.models.BulkBooksRequest.Operation;
+import wolox.training.repositories.BookRepository;
+import wolox.training.repositories.UserBookRepository;
+import wolox.training.repositories.UserRepository;
+
+/**
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+class UserBookServiceTest {
+
+    private static final Long USER_ID = 1L;
+
+    private UserRepository userRepository;
+    private BookRepository bookRepository;
+    private UserBookRepository userBookRepository;
+    private UserBookService userBookService;
+
+    @BeforeEach
+    void setup() {
+        userRepository = mock(UserRepository.class);
+        bookRepository = mock(BookRepository.class);
+        userBookRepository = mock(UserBookRepository.class);
+        userBookService = new UserBookService(userRepository, bookRepository, userBookRepository);
+    }
+
+    @Test
+    void whenAddBooks_ThenReturnResultOfEveryDistinctBook() {
+        BulkBooksRequest request = request(Operation.ADD, 1L, 2L, 3L, 1L);
+        when(userRepository.existsById(USER_ID)).thenReturn(true);
+        when(bookRepository.findIdsByIdIn(new HashSet<>(Arrays.asList(1L, 2L, 3L))))
+            .thenReturn(new HashSet<>(Arrays.asList(1L, 2L)));
+        when(userBookRepository.addBooks(USER_ID, new HashSet<>(Arrays.asList(1L, 2L))))
+            .thenReturn(Collections.singletonList(1L));
+
+        List<BookOwnershipResult> results = userBookService.updateBooks(USER_ID, request);
+
+        assertEquals(3, results.size(), WRONG_SIZE);
+        assertEquals(Status.ADDED, results.get(0).getStatus());
+        assertEquals(Status.ALREADY_OWNED, results.get(1).getStatus());
+        assertEquals(Status.NOT_FOUND, results.get(2).getStatus());
+    }
+
+    @Test
+    void whenRemoveBooks_ThenReturnResultOfEveryBook() {
+        BulkBooksRequest request = request(Operation.REMOVE, 1L, 2L);
+        when(userRepository.existsById(USER_ID)).thenReturn(true);
+        when(bookRepository.findIdsByIdIn(new HashSet<>(Arrays.asList(1L, 2L))))
+            .thenReturn(new HashSet<>(Arrays.asList(1L, 2L)));
+        when(userBookRepository.removeBooks(USER_ID, new HashSet<>(Arrays.asList(1L, 2L))))
+            .thenReturn(Collections.singletonList(2L));
+
+        List<BookOwnershipResult> results = userBookService.updateBooks(USER_ID, request);
+
+        assertEquals(Status.NOT_OWNED, results.get(0).getStatus());
+        assertEquals(Status.REMOVED, results.get(1).getStatus());
+    }
+
+    @Test
+    void whenUpdateBooksOfNoExistentUser_ThenThrowException() {
+        BulkBooksRequest request = request(Operation.ADD, 1L);
+
+        assertThrows(UserNotFoundException.class, () -> userBookService.updateBooks(USER_ID, request),
+            EXCEPTION_THROWN);
+    }
+
+    private BulkBooksRequest request(Operation operation, Long... bookIds) {
+        BulkBooksRequest request = new BulkBooksRequest();
+        request.setOperation(operation);
+        request.setBookIds(Arrays.asList(bookIds));
+        return request;
+    }
+}
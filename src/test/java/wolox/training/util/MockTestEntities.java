@@ -9,8 +9,6 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.LocalDate;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import wolox.training.models.Book;
@@ -115,16 +113,8 @@ public class MockTestEntities {
         bookDTO.setTitle("Zen speaks");
         bookDTO.setSubtitle("shouts of nothingness");
         bookDTO.setPublishDate("1994");
-
-        HashMap<String, String> map = new HashMap<>();
-        map.put("name", "Anchor Books");
-
-        bookDTO.setPublishers(Collections.singletonList(map));
-
-        map.clear();
-        map.put("name", "Zhizhong Cai");
-
-        bookDTO.setAuthors(Collections.singletonList(map));
+        bookDTO.setPublisher("Anchor Books");
+        bookDTO.setAuthor("Zhizhong Cai");
 
         return bookDTO;
     }
@@ -0,0 +1,138 @@
+package wolox.training.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import wolox.training.utils.CircuitBreaker.State;
+
+/**
+ * @author Juan David Bermudez
+ * @version 1.0
+ * @since 1.0
+ */
+class CircuitBreakerTest {
+
+    private static final long FAST_CALL = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW_CALL = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long OPEN_DURATION_MILLIS = 1000;
+
+    private AtomicLong clock;
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setup() {
+        clock = new AtomicLong();
+        circuitBreaker = CircuitBreaker.builder()
+            .name("test")
+            .windowSize(4)
+            .minimumCalls(4)
+            .failureRateThreshold(50)
+            .slowCallRateThreshold(75)
+            .slowCallDurationMillis(100)
+            .openDurationMillis(OPEN_DURATION_MILLIS)
+            .halfOpenCalls(2)
+            .clock(clock::get)
+            .build();
+    }
+
+    @Test
+    void whenFailureRateIsBelowThreshold_ThenCircuitStaysClosed() {
+        circuitBreaker.onError(FAST_CALL);
+        circuitBreaker.onSuccess(FAST_CALL);
+        circuitBreaker.onSuccess(FAST_CALL);
+        circuitBreaker.onSuccess(FAST_CALL);
+
+        assertEquals(State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void whenFailureRateReachesThreshold_ThenCircuitOpensAndCallsAreNotPermitted() {
+        circuitBreaker.onError(FAST_CALL);
+        circuitBreaker.onSuccess(FAST_CALL);
+        circuitBreaker.onError(FAST_CALL);
+        assertEquals(State.CLOSED, circuitBreaker.getState());
+
+        circuitBreaker.onSuccess(FAST_CALL);
+
+        assertEquals(State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(1, circuitBreaker.getTransitionCount(State.OPEN));
+    }
+
+    @Test
+    void whenOldFailuresLeaveTheWindow_ThenTheyAreNotCounted() {
+        circuitBreaker.onError(FAST_CALL);
+        for (int i = 0; i < 8; i++) {
+            circuitBreaker.onSuccess(FAST_CALL);
+        }
+        circuitBreaker.onError(FAST_CALL);
+
+        assertEquals(State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void whenSlowCallRateReachesThreshold_ThenCircuitOpens() {
+        circuitBreaker.onSuccess(SLOW_CALL);
+        circuitBreaker.onSuccess(SLOW_CALL);
+        circuitBreaker.onSuccess(FAST_CALL);
+        circuitBreaker.onSuccess(SLOW_CALL);
+
+        assertEquals(State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void whenOpenDurationElapses_ThenLimitedTrialCallsArePermittedAndSuccessesCloseTheCircuit() {
+        openCircuit();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_DURATION_MILLIS));
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(State.HALF_OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+
+        circuitBreaker.onSuccess(FAST_CALL);
+        circuitBreaker.onSuccess(FAST_CALL);
+
+        assertEquals(State.CLOSED, circuitBreaker.getState());
+        assertEquals(1, circuitBreaker.getTransitionCount(State.HALF_OPEN));
+        assertEquals(1, circuitBreaker.getTransitionCount(State.CLOSED));
+    }
+
+    @Test
+    void whenTrialCallFails_ThenCircuitOpensAgain() {
+        openCircuit();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_DURATION_MILLIS));
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onError(FAST_CALL);
+
+        assertEquals(State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(2, circuitBreaker.getTransitionCount(State.OPEN));
+    }
+
+    @Test
+    void whenTrialPermissionIsReleased_ThenAnotherTrialCallIsPermitted() {
+        openCircuit();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_DURATION_MILLIS));
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.releasePermission();
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onError(FAST_CALL);
+        }
+        assertEquals(State.OPEN, circuitBreaker.getState());
+    }
+}